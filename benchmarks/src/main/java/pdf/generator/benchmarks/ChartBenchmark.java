@@ -0,0 +1,51 @@
+package pdf.generator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import pdf.generator.ChartMode;
+import pdf.generator.ReportOptions;
+import pdf.generator.model.Tasks;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compares the raster and vector pie chart paths on a task report that is little more than the chart.
+ * With {@code cached=false} the chart caches are cleared before every report, so each one pays for the full
+ * chart pipeline; {@code outputBytes} over the throughput score gives the file size of each mode.
+ */
+public class ChartBenchmark extends ServiceBenchmark {
+
+    @Param({"RASTER", "VECTOR"})
+    public ChartMode chartMode;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private List<Tasks> tasks;
+
+    @Override
+    protected ReportOptions options() {
+        return new ReportOptions().setChartMode(chartMode);
+    }
+
+    @Override
+    protected void setUpInput() {
+        tasks = ReportData.tasks(5, 1, SEED);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCaches() {
+        if (!cached) {
+            service.getPieChartCache().clear();
+            service.getVectorPieChartCache().clear();
+        }
+    }
+
+    @Benchmark
+    public void taskReportWithChart(OutputCounter output) throws IOException {
+        service.generateTaskReport(tasks, false, false, false, true, output.sink());
+    }
+}
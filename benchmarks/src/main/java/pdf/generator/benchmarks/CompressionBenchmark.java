@@ -0,0 +1,69 @@
+package pdf.generator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import pdf.generator.ReportJob;
+import pdf.generator.ReportOptions;
+
+import java.io.IOException;
+
+/**
+ * CPU time against output size of each report type under the default writer settings and the {@code fast} and
+ * {@code smallest} presets of {@link ReportOptions}.
+ */
+public class CompressionBenchmark extends ServiceBenchmark {
+
+    @Param({"default", "fast", "smallest"})
+    public String preset;
+
+    @Param({"user", "warehouse", "product", "task"})
+    public String report;
+
+    @Param({"1000"})
+    public int rows;
+
+    private ReportJob job;
+
+    @Override
+    protected ReportOptions options() {
+        return options(preset);
+    }
+
+    @Override
+    protected void setUpInput() {
+        job = job(report, rows);
+    }
+
+    @Benchmark
+    public void render(OutputCounter output) throws IOException {
+        job.render(service, output.sink());
+    }
+
+    private static ReportOptions options(String preset) {
+        switch (preset) {
+            case "default":
+                return new ReportOptions();
+            case "fast":
+                return ReportOptions.fast();
+            case "smallest":
+                return ReportOptions.smallest();
+            default:
+                throw new IllegalArgumentException("Unknown preset: " + preset);
+        }
+    }
+
+    private static ReportJob job(String report, int rows) {
+        switch (report) {
+            case "user":
+                return ReportJob.userReport(ReportData.users(rows, SEED), false);
+            case "warehouse":
+                return ReportJob.warehouseReport(ReportData.warehouses(rows, SEED));
+            case "product":
+                return ReportJob.productReport(ReportData.products(rows, SEED));
+            case "task":
+                return ReportJob.taskReport(ReportData.tasks(rows, 3, SEED), false, false, false, true);
+            default:
+                throw new IllegalArgumentException("Unknown report: " + report);
+        }
+    }
+}
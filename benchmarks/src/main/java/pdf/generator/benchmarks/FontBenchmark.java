@@ -0,0 +1,61 @@
+package pdf.generator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import pdf.generator.PdfGeneratorService;
+import pdf.generator.ReportFontProvider;
+import pdf.generator.ReportOptions;
+import pdf.generator.model.Product;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-report latency of a small report on a service whose font provider has not loaded its font yet (cold)
+ * against one that already has (warm). Pass {@code -p fontFile=/path/to/font.ttf} to measure an embedded
+ * TrueType font; the default is the standard Helvetica font.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FontBenchmark extends ServiceBenchmark {
+
+    @Param({""})
+    public String fontFile;
+
+    @Param({"20"})
+    public int rows;
+
+    private List<Product> products;
+    private PdfGeneratorService coldService;
+
+    @Override
+    protected void setUpInput() throws IOException {
+        products = ReportData.products(rows, SEED);
+        service.generateProductReport(products, new OutputCounter().sink());
+    }
+
+    @Setup(Level.Invocation)
+    public void newColdService() {
+        coldService = new PdfGeneratorService(options());
+    }
+
+    @Benchmark
+    public void coldReport(OutputCounter output) throws IOException {
+        coldService.generateProductReport(products, output.sink());
+    }
+
+    @Benchmark
+    public void warmReport(OutputCounter output) throws IOException {
+        service.generateProductReport(products, output.sink());
+    }
+
+    @Override
+    protected ReportOptions options() {
+        ReportFontProvider fontProvider = fontFile.isEmpty() ? new ReportFontProvider() : new ReportFontProvider(Paths.get(fontFile));
+        return new ReportOptions().setFontProvider(fontProvider);
+    }
+}
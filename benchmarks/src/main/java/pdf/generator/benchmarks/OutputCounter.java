@@ -0,0 +1,49 @@
+package pdf.generator.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+
+/**
+ * Discards report output and counts the bytes written, as the secondary {@code outputBytes} metric. JMH
+ * normalizes the count per iteration like an operation count, so it is reported as a rate in the benchmark's
+ * time unit; divided by the throughput score ({@code -bm thrpt}) it is the size of one report.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class OutputCounter {
+
+    private long written;
+
+    private final OutputStream sink = new OutputStream() {
+        @Override
+        public void write(int b) {
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+        }
+    };
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        written = 0;
+    }
+
+    OutputStream sink() {
+        return sink;
+    }
+
+    /**
+     * Bytes written during the current iteration.
+     */
+    public long outputBytes() {
+        return written;
+    }
+}
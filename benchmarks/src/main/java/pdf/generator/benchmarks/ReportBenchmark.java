@@ -0,0 +1,155 @@
+package pdf.generator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pdf.generator.PdfGeneratorService;
+import pdf.generator.ProductColumns;
+import pdf.generator.WarehouseColumns;
+import pdf.generator.model.Product;
+import pdf.generator.model.Tasks;
+import pdf.generator.model.User;
+import pdf.generator.model.Warehouse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Covers every report path of {@link PdfGeneratorService}. Sample-time mode reports latency percentiles
+ * alongside the mean; run with {@code -bm thrpt} for throughput and with {@code -prof gc} for allocation
+ * per operation. {@code outputBytes} is the output rate; see {@link OutputCounter}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ReportBenchmark {
+
+    private static final long SEED = 42;
+
+    @State(Scope.Benchmark)
+    public static class UserReport {
+        @Param({"100", "1000", "10000"})
+        public int rows;
+
+        @Param({"false", "true"})
+        public boolean includeTasks;
+
+        List<User> users;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            users = ReportData.users(rows, SEED);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class WarehouseReport {
+        @Param({"100", "1000", "10000"})
+        public int rows;
+
+        List<Warehouse> warehouses;
+        WarehouseColumns columns;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            warehouses = ReportData.warehouses(rows, SEED);
+            columns = WarehouseColumns.from(warehouses);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProductReport {
+        @Param({"100", "1000", "10000"})
+        public int rows;
+
+        List<Product> products;
+        ProductColumns columns;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            products = ReportData.products(rows, SEED);
+            columns = ProductColumns.from(products);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TaskReport {
+        @Param({"10", "100", "1000"})
+        public int rows;
+
+        @Param({"3"})
+        public int membersPerTask;
+
+        @Param({"false", "true"})
+        public boolean includeUsers;
+
+        @Param({"false", "true"})
+        public boolean includeProducts;
+
+        @Param({"false", "true"})
+        public boolean includeWarehouses;
+
+        @Param({"false", "true"})
+        public boolean includePieChart;
+
+        List<Tasks> tasks;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            tasks = ReportData.tasks(rows, membersPerTask, SEED);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Service {
+        PdfGeneratorService service;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            service = new PdfGeneratorService();
+        }
+    }
+
+    @Benchmark
+    public void userReport(Service service, UserReport input, OutputCounter output) throws IOException {
+        service.service.generateUserReport(input.users, input.includeTasks, output.sink());
+    }
+
+    @Benchmark
+    public void warehouseReport(Service service, WarehouseReport input, OutputCounter output) throws IOException {
+        service.service.generateWarehouseReport(input.warehouses, output.sink());
+    }
+
+    @Benchmark
+    public void columnarWarehouseReport(Service service, WarehouseReport input, OutputCounter output) throws IOException {
+        service.service.generateWarehouseReport(input.columns, output.sink());
+    }
+
+    @Benchmark
+    public void productReport(Service service, ProductReport input, OutputCounter output) throws IOException {
+        service.service.generateProductReport(input.products, output.sink());
+    }
+
+    @Benchmark
+    public void columnarProductReport(Service service, ProductReport input, OutputCounter output) throws IOException {
+        service.service.generateProductReport(input.columns, output.sink());
+    }
+
+    @Benchmark
+    public void taskReport(Service service, TaskReport input, OutputCounter output) throws IOException {
+        service.service.generateTaskReport(input.tasks, input.includeUsers, input.includeProducts, input.includeWarehouses,
+                input.includePieChart, output.sink());
+    }
+}
@@ -0,0 +1,120 @@
+package pdf.generator.benchmarks;
+
+import pdf.generator.model.Product;
+import pdf.generator.model.Tasks;
+import pdf.generator.model.User;
+import pdf.generator.model.Warehouse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic synthetic input for the benchmarks. The same seed always yields the same rows, so runs
+ * with the same parameters render the same documents.
+ */
+public final class ReportData {
+
+    private static final String[] BUILDINGS = {"North", "South", "East", "West", "Central"};
+    private static final String[] ZONES = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private ReportData() {
+    }
+
+    public static List<User> users(int count, long seed) {
+        Random random = new Random(seed);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUsername("user" + i);
+            user.setName("Name" + random.nextInt(1000));
+            user.setLastname("Lastname" + random.nextInt(5000));
+            user.setPesel(String.format("%011d", Math.abs(random.nextLong()) % 100_000_000_000L));
+            user.setEmail("user" + i + "@example.com");
+            user.setPhoneNumber(String.format("+48 %09d", random.nextInt(1_000_000_000)));
+            user.setActive(random.nextBoolean());
+            users.add(user);
+        }
+        return users;
+    }
+
+    public static List<Warehouse> warehouses(int count, long seed) {
+        Random random = new Random(seed);
+        List<Warehouse> warehouses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Warehouse warehouse = new Warehouse();
+            warehouse.setId((long) i);
+            warehouse.setBuilding(BUILDINGS[random.nextInt(BUILDINGS.length)]);
+            warehouse.setZone(ZONES[random.nextInt(ZONES.length)]);
+            warehouse.setSpaceId((long) random.nextInt(100_000));
+            warehouse.setSpaceHeight(50 + random.nextInt(300));
+            warehouse.setSpaceWidth(50 + random.nextInt(300));
+            warehouse.setSpaceLength(50 + random.nextInt(300));
+            warehouse.setProductId(random.nextInt(4) == 0 ? null : (long) random.nextInt(10_000));
+            warehouses.add(warehouse);
+        }
+        return warehouses;
+    }
+
+    public static List<Product> products(int count, long seed) {
+        Random random = new Random(seed);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("Product " + i);
+            product.setCode("P-" + Integer.toHexString(random.nextInt()).toUpperCase());
+            product.setWidth(Math.round(random.nextDouble() * 1000) / 10.0);
+            product.setHeight(Math.round(random.nextDouble() * 1000) / 10.0);
+            product.setLength(Math.round(random.nextDouble() * 1000) / 10.0);
+            product.setWeight(Math.round(random.nextDouble() * 10000) / 100.0);
+            product.setActive(random.nextBoolean());
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * Creates tasks whose member sets are drawn from a small pool, the way real tasks share the same crews,
+     * products and storage spaces. Every task gets its own member instances, as rows loaded from a data source
+     * would, so members of different tasks are equal only by id.
+     */
+    public static List<Tasks> tasks(int count, int membersPerTask, long seed) {
+        Random random = new Random(seed);
+        int poolSize = Math.max(membersPerTask * 4, 1);
+
+        List<Tasks> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Tasks task = new Tasks();
+            task.setId((long) i);
+            task.setName("Task " + i);
+            task.setDescription("Move batch " + random.nextInt(10_000) + " to staging");
+            task.setState(random.nextInt(5));
+            task.setPriority(1 + random.nextInt(3));
+            LocalDateTime created = EPOCH.plusMinutes(random.nextInt(525_600));
+            task.setCreationDate(created);
+            task.setStartDate(created.plusHours(1 + random.nextInt(48)));
+            task.setEndDate(task.getStartDate().plusHours(1 + random.nextInt(72)));
+            task.setActive(random.nextInt(10) != 0);
+            int pool = random.nextInt(4);
+            task.setUsers(slice(users(poolSize, seed + 1), pool, membersPerTask));
+            task.setProducts(slice(products(poolSize, seed + 2), pool, membersPerTask));
+            task.setWarehouses(slice(warehouses(poolSize, seed + 3), pool, membersPerTask));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static <T> Set<T> slice(List<T> items, int pool, int size) {
+        Set<T> slice = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            slice.add(items.get((pool * size + i) % items.size()));
+        }
+        return slice;
+    }
+}
@@ -0,0 +1,53 @@
+package pdf.generator.benchmarks;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pdf.generator.PdfGeneratorService;
+import pdf.generator.ReportOptions;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run settings and fixture shared by the benchmarks that compare {@link ReportOptions} settings on one report:
+ * each trial builds one {@link PdfGeneratorService} from {@link #options()} and then calls {@link #setUpInput()}.
+ * Subclasses add their own {@code @Param} axes and may override any of the run settings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public abstract class ServiceBenchmark {
+
+    static final long SEED = 42;
+
+    PdfGeneratorService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        service = new PdfGeneratorService(options());
+        setUpInput();
+    }
+
+    /**
+     * Returns the options of the service under test, read after the {@code @Param} fields are injected.
+     */
+    protected ReportOptions options() {
+        return new ReportOptions();
+    }
+
+    /**
+     * Builds the rows the benchmark renders; runs once per trial, after {@link #service} is created.
+     */
+    protected abstract void setUpInput() throws IOException;
+}
@@ -0,0 +1,43 @@
+package pdf.generator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import pdf.generator.ReportOptions;
+import pdf.generator.TaskLayout;
+import pdf.generator.model.Tasks;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Task report in the table-per-task layout against the single compact table, with and without the optional
+ * sections.
+ */
+public class TaskLayoutBenchmark extends ServiceBenchmark {
+
+    @Param({"DETAILED", "COMPACT"})
+    public TaskLayout layout;
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean includeSections;
+
+    private List<Tasks> tasks;
+
+    @Override
+    protected ReportOptions options() {
+        return new ReportOptions().setTaskLayout(layout);
+    }
+
+    @Override
+    protected void setUpInput() {
+        tasks = ReportData.tasks(rows, 3, SEED);
+    }
+
+    @Benchmark
+    public void taskReport(OutputCounter output) throws IOException {
+        service.generateTaskReport(tasks, includeSections, includeSections, includeSections, false, output.sink());
+    }
+}
@@ -0,0 +1,43 @@
+package pdf.generator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import pdf.generator.ReportOptions;
+import pdf.generator.model.Tasks;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Task report with every optional section, laid out per task against deduplicated sections that are laid out
+ * once per distinct member set. The generated tasks share four member pools, so the report size
+ * ({@code outputBytes} over the throughput score) shows how much of the plain report is repeated sections.
+ */
+public class TaskSectionBenchmark extends ServiceBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    @Param({"3", "10"})
+    public int membersPerTask;
+
+    @Param({"false", "true"})
+    public boolean deduplicate;
+
+    private List<Tasks> tasks;
+
+    @Override
+    protected ReportOptions options() {
+        return new ReportOptions().setDeduplicateTaskSections(deduplicate);
+    }
+
+    @Override
+    protected void setUpInput() {
+        tasks = ReportData.tasks(rows, membersPerTask, SEED);
+    }
+
+    @Benchmark
+    public void taskReportWithSections(OutputCounter output) throws IOException {
+        service.generateTaskReport(tasks, true, true, true, false, output.sink());
+    }
+}
@@ -0,0 +1,94 @@
+package pdf.generator;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded least-recently-used cache of rendered charts, keyed by the task count per state the chart shows.
+ * <p>
+ * Charts are rendered outside the lock, so two threads missing on the same distribution at the same time may
+ * both render it; the last one wins. That is cheaper than serializing every chart render behind one lock.
+ *
+ * @param <V> the cached chart representation
+ */
+public class ChartCache<V> {
+
+    private final int maxEntries;
+    private final Map<Map<Integer, Long>, V> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ChartCache(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must not be negative: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Map<Integer, Long>, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Map<Integer, Long>, V> eldest) {
+                return size() > ChartCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the chart cached for {@code taskStateCounts}, rendering and caching it on a miss.
+     */
+    public V get(Map<Integer, Long> taskStateCounts, ChartRenderer<V> renderer) throws IOException {
+        V chart;
+        synchronized (entries) {
+            chart = entries.get(taskStateCounts);
+        }
+        if (chart != null) {
+            hits.incrementAndGet();
+            return chart;
+        }
+        misses.incrementAndGet();
+        // The chart is rendered from the caller's map, whose order sets the order of the slices; the copy is only a
+        // key that later changes to the caller's map cannot affect
+        chart = renderer.render(taskStateCounts);
+        Map<Integer, Long> key = new HashMap<>(taskStateCounts);
+        synchronized (entries) {
+            entries.put(key, chart);
+        }
+        return chart;
+    }
+
+    /**
+     * Returns the chart cached for {@code taskStateCounts}, or {@code null}, without counting a hit or a miss. Used
+     * to pick up a chart whose render through {@link #get} was already counted.
+     */
+    V peek(Map<Integer, Long> taskStateCounts) {
+        synchronized (entries) {
+            return entries.get(taskStateCounts);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChartRenderer<V> {
+        V render(Map<Integer, Long> taskStateCounts) throws IOException;
+    }
+}
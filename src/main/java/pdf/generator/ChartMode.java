@@ -0,0 +1,18 @@
+package pdf.generator;
+
+/**
+ * How charts are embedded in a report.
+ */
+public enum ChartMode {
+
+    /**
+     * The chart is rasterized to a PNG image.
+     */
+    RASTER,
+
+    /**
+     * The chart is drawn as vector graphics into a Form XObject. This skips PNG encoding and decoding,
+     * produces smaller files and stays sharp at any zoom level.
+     */
+    VECTOR
+}
@@ -0,0 +1,70 @@
+package pdf.generator;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes report metrics to a Micrometer {@link MeterRegistry}, tagged with the report type:
+ * <ul>
+ *     <li>{@code pdf.report.duration}: timer of the whole report, tagged with the outcome</li>
+ *     <li>{@code pdf.report.stage}: timer per {@link ReportStage} the report went through, tagged with the stage</li>
+ *     <li>{@code pdf.report.rows}, {@code pdf.report.pages}, {@code pdf.report.output} and
+ *     {@code pdf.report.allocated}: distribution summaries, the last two in bytes</li>
+ * </ul>
+ * Micrometer is an optional dependency of this library; applications using this listener provide it.
+ */
+public class MicrometerReportMetricsListener implements ReportMetricsListener {
+
+    private final MeterRegistry registry;
+
+    public MicrometerReportMetricsListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void reportCompleted(ReportMetrics metrics) {
+        record(metrics, "success");
+    }
+
+    @Override
+    public void reportFailed(ReportMetrics metrics, Throwable error) {
+        record(metrics, "failure");
+    }
+
+    private void record(ReportMetrics metrics, String outcome) {
+        String report = metrics.getReportType();
+        Timer.builder("pdf.report.duration")
+                .tag("report", report)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(metrics.getTotalNanos(), TimeUnit.NANOSECONDS);
+        for (ReportStage stage : ReportStage.values()) {
+            if (metrics.getStageNanos(stage) == 0) {
+                // Not every report has every stage, e.g. only task reports draw charts
+                continue;
+            }
+            Timer.builder("pdf.report.stage")
+                    .tag("report", report)
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .register(registry)
+                    .record(metrics.getStageNanos(stage), TimeUnit.NANOSECONDS);
+        }
+        summary("pdf.report.rows", null, report).record(metrics.getRows());
+        summary("pdf.report.pages", null, report).record(metrics.getPages());
+        summary("pdf.report.output", "bytes", report).record(metrics.getOutputBytes());
+        if (metrics.getAllocatedBytes() >= 0) {
+            summary("pdf.report.allocated", "bytes", report).record(metrics.getAllocatedBytes());
+        }
+    }
+
+    private DistributionSummary summary(String name, String baseUnit, String report) {
+        return DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tag("report", report)
+                .register(registry);
+    }
+}
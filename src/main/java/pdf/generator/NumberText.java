@@ -0,0 +1,71 @@
+package pdf.generator;
+
+/**
+ * Cached decimal text of the numbers in report cells, identical to {@link String#valueOf}.
+ * <p>
+ * Report columns repeat the same few values, dimensions, zones and ids in a small range, on every row, and
+ * {@code Double.toString} in particular is expensive. Small non-negative integers come from a table built once;
+ * other values go through a direct-mapped cache in which a slot holds the most recent value that hashed to it.
+ * Slots hold immutable entries and are replaced without locking, so the caches are safe to share between threads;
+ * a lost update only costs a later conversion.
+ */
+final class NumberText {
+
+    private static final int SMALL_LIMIT = 1024;
+    private static final int SLOTS = 4096;
+
+    private static final String[] SMALL = new String[SMALL_LIMIT];
+    private static final Entry[] LONGS = new Entry[SLOTS];
+    private static final Entry[] DOUBLES = new Entry[SLOTS];
+
+    static {
+        for (int i = 0; i < SMALL_LIMIT; i++) {
+            SMALL[i] = Integer.toString(i);
+        }
+    }
+
+    private NumberText() {
+    }
+
+    static String of(int value) {
+        return of((long) value);
+    }
+
+    static String of(long value) {
+        if (value >= 0 && value < SMALL_LIMIT) {
+            return SMALL[(int) value];
+        }
+        return lookup(LONGS, value, false);
+    }
+
+    static String of(double value) {
+        return lookup(DOUBLES, Double.doubleToRawLongBits(value), true);
+    }
+
+    private static String lookup(Entry[] cache, long bits, boolean isDouble) {
+        int slot = slot(bits);
+        Entry entry = cache[slot];
+        if (entry == null || entry.bits != bits) {
+            String text = isDouble ? Double.toString(Double.longBitsToDouble(bits)) : Long.toString(bits);
+            entry = new Entry(bits, text);
+            cache[slot] = entry;
+        }
+        return entry.text;
+    }
+
+    private static int slot(long bits) {
+        long hash = bits * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 52) & (SLOTS - 1);
+    }
+
+    private static final class Entry {
+
+        private final long bits;
+        private final String text;
+
+        Entry(long bits, String text) {
+            this.bits = bits;
+            this.text = text;
+        }
+    }
+}
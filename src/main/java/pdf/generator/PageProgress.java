@@ -0,0 +1,78 @@
+package pdf.generator;
+
+import com.itextpdf.kernel.events.Event;
+import com.itextpdf.kernel.events.IEventHandler;
+import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.pdf.PdfDocument;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Tells a {@link ReportPageListener} about the pages of a report as they are written.
+ * <p>
+ * A page raises {@link PdfDocumentEvent#END_PAGE} when the layout moves on and flushes it, but it is written only
+ * after its handlers have run. So each page is reported when the next one ends, after flushing the writer so the
+ * caller's stream holds it, and the last page when the document has been closed.
+ */
+class PageProgress implements IEventHandler {
+
+    private final PdfDocument pdfDoc;
+    private final ReportRecorder recorder;
+    private final ReportPageListener listener;
+    private int endedPages;
+
+    private PageProgress(PdfDocument pdfDoc, ReportRecorder recorder, ReportPageListener listener) {
+        this.pdfDoc = pdfDoc;
+        this.recorder = recorder;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts following the pages of {@code pdfDoc}, whose output {@code recorder} counts, or returns {@code null}
+     * without a listener.
+     */
+    static PageProgress attach(PdfDocument pdfDoc, ReportRecorder recorder, ReportPageListener listener) {
+        if (listener == null) {
+            return null;
+        }
+        PageProgress progress = new PageProgress(pdfDoc, recorder, listener);
+        pdfDoc.addEventHandler(PdfDocumentEvent.END_PAGE, progress);
+        return progress;
+    }
+
+    @Override
+    public void handleEvent(Event event) {
+        if (endedPages > 0) {
+            try {
+                pdfDoc.getWriter().flush();
+            } catch (IOException e) {
+                throw new WriteFailure(e);
+            }
+            listener.pagesWritten(endedPages, recorder.getBytesWritten());
+        }
+        endedPages++;
+    }
+
+    /**
+     * Reports the whole document once it has been closed.
+     */
+    void documentClosed() {
+        try {
+            listener.pagesWritten(endedPages, recorder.getBytesWritten());
+        } catch (ReportCancelledException e) {
+            // Too late, the report is complete
+        }
+    }
+
+    /**
+     * Carries a failure to flush the writer out of the layout, which calls the handler, to the report method.
+     */
+    static final class WriteFailure extends UncheckedIOException {
+        private static final long serialVersionUID = 1L;
+
+        WriteFailure(IOException cause) {
+            super(cause);
+        }
+    }
+}
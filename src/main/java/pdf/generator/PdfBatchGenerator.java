@@ -0,0 +1,268 @@
+package pdf.generator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders many reports concurrently on a bounded executor.
+ * <p>
+ * At most {@code maxInFlight} jobs are queued or running at any time. {@link #submit} blocks the caller
+ * until a slot is free, so a producer feeding thousands of jobs cannot run ahead of the renderers and
+ * pile up report inputs in memory. Every job streams straight to its target, which keeps the memory held
+ * per running job at roughly one page.
+ */
+public class PdfBatchGenerator implements AutoCloseable {
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final long ZIP_SPILL_THRESHOLD = 1024 * 1024;
+
+    private final PdfGeneratorService service;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+
+    /**
+     * Creates a generator with one worker per available core and twice as many jobs in flight.
+     */
+    public PdfBatchGenerator(PdfGeneratorService service) {
+        this(service, Runtime.getRuntime().availableProcessors());
+    }
+
+    public PdfBatchGenerator(PdfGeneratorService service, int threads) {
+        this(service, Executors.newFixedThreadPool(threads, new WorkerThreadFactory()), true, threads * 2);
+    }
+
+    /**
+     * Creates a generator on a caller-owned executor, which is not shut down by {@link #close()}.
+     */
+    public PdfBatchGenerator(PdfGeneratorService service, ExecutorService executor, int maxInFlight) {
+        this(service, executor, false, maxInFlight);
+    }
+
+    private PdfBatchGenerator(PdfGeneratorService service, ExecutorService executor, boolean ownsExecutor, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.service = service;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Renders {@code job} into {@code target}. Blocks while the generator is at its in-flight limit.
+     */
+    public CompletableFuture<Path> submit(ReportJob job, Path target) throws InterruptedException {
+        return schedule(() -> {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), OUTPUT_BUFFER_SIZE)) {
+                job.render(service, out);
+            }
+            return target;
+        });
+    }
+
+    /**
+     * Renders {@code job} into {@code out}, which is flushed but left open. Blocks while the generator is at its
+     * in-flight limit.
+     */
+    public CompletableFuture<OutputStream> submit(ReportJob job, OutputStream out) throws InterruptedException {
+        return schedule(() -> {
+            job.render(service, out);
+            out.flush();
+            return out;
+        });
+    }
+
+    /**
+     * Submits every job in iteration order and returns their futures in the same order.
+     */
+    public List<CompletableFuture<Path>> submitAll(Map<Path, ReportJob> jobs) throws InterruptedException {
+        List<CompletableFuture<Path>> futures = new ArrayList<>(jobs.size());
+        for (Map.Entry<Path, ReportJob> entry : jobs.entrySet()) {
+            futures.add(submit(entry.getValue(), entry.getKey()));
+        }
+        return futures;
+    }
+
+    /**
+     * Writes a ZIP archive to {@code out} with one entry per job, named by its key, in iteration order, rendering
+     * the jobs concurrently. Each job renders into a {@link SpillingOutputStream} that keeps at most 1 MB on the
+     * heap, and entries are copied into the archive in order as soon as they and the entries before them are done.
+     * The archive is finished but {@code out} is not closed.
+     */
+    public void writeZip(Map<String, ReportJob> jobs, OutputStream out) throws IOException, InterruptedException {
+        writeZip(jobs, out, ZIP_SPILL_THRESHOLD);
+    }
+
+    /**
+     * Like {@link #writeZip(Map, OutputStream)}, keeping up to {@code spillThreshold} bytes of each rendered entry on
+     * the heap. At most as many entries as jobs in flight are rendered ahead of the one being written, so at most
+     * that many buffers exist at a time.
+     */
+    public void writeZip(Map<String, ReportJob> jobs, OutputStream out, long spillThreshold) throws IOException, InterruptedException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+        ZipOutputStream zip = new ZipOutputStream(buffered);
+        Deque<PendingEntry> pending = new ArrayDeque<>();
+        try {
+            for (Map.Entry<String, ReportJob> entry : jobs.entrySet()) {
+                if (pending.size() >= maxInFlight) {
+                    writeEntry(zip, pending.removeFirst());
+                }
+                ReportJob job = entry.getValue();
+                pending.addLast(new PendingEntry(entry.getKey(), schedule(() -> {
+                    SpillingOutputStream buffer = new SpillingOutputStream(spillThreshold);
+                    try {
+                        job.render(service, buffer);
+                        buffer.close();
+                        return buffer;
+                    } catch (IOException | RuntimeException e) {
+                        buffer.discard();
+                        throw e;
+                    }
+                })));
+                while (!pending.isEmpty() && pending.peekFirst().buffer.isDone()) {
+                    writeEntry(zip, pending.removeFirst());
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeEntry(zip, pending.removeFirst());
+            }
+        } finally {
+            for (PendingEntry entry : pending) {
+                entry.buffer.thenAccept(PdfBatchGenerator::discardQuietly);
+            }
+        }
+        zip.finish();
+        buffered.flush();
+    }
+
+    private static void writeEntry(ZipOutputStream zip, PendingEntry entry) throws IOException, InterruptedException {
+        SpillingOutputStream buffer;
+        try {
+            buffer = entry.buffer.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Report " + entry.name + " failed", cause);
+        }
+        try (InputStream in = buffer.toInputStream()) {
+            zip.putNextEntry(new ZipEntry(entry.name));
+            byte[] bytes = new byte[OUTPUT_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(bytes)) != -1) {
+                zip.write(bytes, 0, read);
+            }
+            zip.closeEntry();
+        } finally {
+            buffer.discard();
+        }
+    }
+
+    private static void discardQuietly(SpillingOutputStream buffer) {
+        try {
+            buffer.discard();
+        } catch (IOException e) {
+            // The temporary file is deleted on exit at the latest
+        }
+    }
+
+    private <T> CompletableFuture<T> schedule(RenderTask<T> task) throws InterruptedException {
+        inFlight.acquire();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.run());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Stops accepting jobs and, if the executor was created by this generator, waits up to {@code timeout} for
+     * running jobs to finish. Returns whether they all finished; always {@code true} on a caller-owned executor,
+     * which is left running.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!ownsExecutor) {
+            return true;
+        }
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Stops accepting jobs and, if the executor was created by this generator, waits for running jobs to finish.
+     * When the calling thread is interrupted while waiting, it returns at once with the interrupt flag set; use
+     * {@link #awaitTermination} to handle the interruption instead.
+     */
+    @Override
+    public void close() {
+        try {
+            awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RenderTask<T> {
+        T run() throws IOException;
+    }
+
+    private static final class PendingEntry {
+        private final String name;
+        private final CompletableFuture<SpillingOutputStream> buffer;
+
+        private PendingEntry(String name, CompletableFuture<SpillingOutputStream> buffer) {
+            this.name = name;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "pdf-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
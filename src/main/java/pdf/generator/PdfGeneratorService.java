@@ -3,316 +3,1121 @@ package pdf.generator;
 import com.itextpdf.io.image.ImageData;
 import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.io.source.ByteArrayOutputStream;
-import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.kernel.pdf.WriterProperties;
 import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.itextpdf.kernel.utils.PdfMergerProperties;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Div;
 import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.element.LineSeparator;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 
+import com.itextpdf.layout.properties.AreaBreakType;
 import com.itextpdf.layout.properties.HorizontalAlignment;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import com.itextpdf.svg.converter.SvgConverter;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartUtils;
 import org.jfree.chart.JFreeChart;
 import org.jfree.data.general.DefaultPieDataset;
+import org.jfree.graphics2d.svg.SVGGraphics2D;
 import pdf.generator.model.Product;
 import pdf.generator.model.Tasks;
 import pdf.generator.model.User;
 import pdf.generator.model.Warehouse;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.jfree.chart.ChartFactory.createPieChart;
 
 
 public class PdfGeneratorService {
 
+    private static final Logger LOGGER = Logger.getLogger(PdfGeneratorService.class.getName());
+
+    /**
+     * Smallest number of tasks rendered per chunk by the default parallel task report. Smaller chunks
+     * spend more time on merging and on the extra page breaks than they save on layout.
+     */
+    private static final int MIN_PARALLEL_CHUNK_SIZE = 200;
+
+    /**
+     * Number of rows added to a large table between two flushes. Flushed rows are laid out,
+     * written with their page and released, so heap use does not grow with the row count.
+     */
+    private static final int LARGE_TABLE_FLUSH_ROWS = 100;
+
+    /**
+     * Buffer between a ZIP archive and the caller's stream, which the deflater would otherwise write to in small
+     * pieces.
+     */
+    private static final int ZIP_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Number of distinct task state distributions whose pie chart is kept ready for reuse.
+     */
+    private static final int PIE_CHART_CACHE_SIZE = 64;
+
+    /**
+     * Room in points kept free for the repeated header row of the compact task table when deciding whether a
+     * task's section is short enough to be shared as a single XObject.
+     */
+    private static final float COMPACT_HEADER_RESERVE = 60;
+
+    /**
+     * Size in points of the task state pie chart.
+     */
+    private static final int PIE_CHART_WIDTH = 500;
+    private static final int PIE_CHART_HEIGHT = 400;
+
+    private static final ReportColumns<User> USER_REPORT_COLUMNS = ReportColumns.of(
+            ReportColumn.text("Username", 2, User::getUsername),
+            ReportColumn.text("Name", 2, User::getName),
+            ReportColumn.text("Lastname", 2, User::getLastname),
+            ReportColumn.text("PESEL", 2, User::getPesel),
+            ReportColumn.text("Email", 2, User::getEmail),
+            ReportColumn.text("Phone Number", 2, User::getPhoneNumber));
+    private static final ReportColumns<Warehouse> WAREHOUSE_REPORT_COLUMNS = ReportColumns.of(
+            ReportColumn.text("Building", 2, Warehouse::getBuilding),
+            ReportColumn.text("Zone", 2, Warehouse::getZone),
+            ReportColumn.of("Space ID", 2, Warehouse::getSpaceId),
+            ReportColumn.ofInt("Space Height", 3, Warehouse::getSpaceHeight),
+            ReportColumn.ofInt("Space Width", 3, Warehouse::getSpaceWidth),
+            ReportColumn.ofInt("Space Length", 3, Warehouse::getSpaceLength),
+            ReportColumn.of("Product ID", 3, Warehouse::getProductId));
+    private static final ReportColumns<Product> PRODUCT_REPORT_COLUMNS = ReportColumns.of(
+            ReportColumn.text("Product", 4, Product::getName),
+            ReportColumn.text("Code", 3, Product::getCode),
+            ReportColumn.ofDouble("Width", 2, Product::getWidth),
+            ReportColumn.ofDouble("Height", 2, Product::getHeight),
+            ReportColumn.ofDouble("Length", 2, Product::getLength),
+            ReportColumn.ofDouble("Weight", 2, Product::getWeight));
+    private static final ReportColumns<WarehouseColumns.Row> WAREHOUSE_BATCH_COLUMNS = ReportColumns.of(
+            ReportColumn.text("Building", 2, WarehouseColumns.Row::getBuilding),
+            ReportColumn.text("Zone", 2, WarehouseColumns.Row::getZone),
+            ReportColumn.text("Space ID", 2, WarehouseColumns.Row::getSpaceIdText),
+            ReportColumn.ofInt("Space Height", 3, WarehouseColumns.Row::getSpaceHeight),
+            ReportColumn.ofInt("Space Width", 3, WarehouseColumns.Row::getSpaceWidth),
+            ReportColumn.ofInt("Space Length", 3, WarehouseColumns.Row::getSpaceLength),
+            ReportColumn.text("Product ID", 3, WarehouseColumns.Row::getProductIdText));
+    private static final ReportColumns<ProductColumns.Row> PRODUCT_BATCH_COLUMNS = ReportColumns.of(
+            ReportColumn.text("Product", 4, ProductColumns.Row::getName),
+            ReportColumn.text("Code", 3, ProductColumns.Row::getCode),
+            ReportColumn.ofDouble("Width", 2, ProductColumns.Row::getWidth),
+            ReportColumn.ofDouble("Height", 2, ProductColumns.Row::getHeight),
+            ReportColumn.ofDouble("Length", 2, ProductColumns.Row::getLength),
+            ReportColumn.ofDouble("Weight", 2, ProductColumns.Row::getWeight));
+    private static final ReportColumns<Tasks> TASK_COLUMNS = ReportColumns.of(
+            ReportColumn.of("Task ID", 2, Tasks::getId),
+            ReportColumn.text("Name", 2, Tasks::getName),
+            ReportColumn.text("Description", 3, Tasks::getDescription),
+            ReportColumn.of("State", 1, Tasks::getState),
+            ReportColumn.of("Priority", 1, Tasks::getPriority),
+            ReportColumn.text("Creation Date", 3, task -> task.getCreationDate().toString()),
+            ReportColumn.text("Start Date", 3, task -> task.getStartDate().toString()),
+            ReportColumn.text("End Date", 2, task -> task.getEndDate().toString()));
+    /**
+     * Columns of the compact task table. Its large-table layout keeps these proportions instead of widening
+     * columns to fit their header, so State and Priority get room not to break mid-word.
+     */
+    private static final ReportColumns<Tasks> COMPACT_TASK_COLUMNS = TASK_COLUMNS.withWidths(2, 2, 3, 2, 2, 3, 3, 3);
+    private static final ReportColumns<User> TASK_USER_COLUMNS = ReportColumns.of(
+            ReportColumn.text("Username", 3, User::getUsername),
+            ReportColumn.text("Name", 3, User::getName),
+            ReportColumn.text("Lastname", 3, User::getLastname),
+            ReportColumn.text("Email", 3, User::getEmail),
+            ReportColumn.text("Phone Number", 3, User::getPhoneNumber));
+    private static final ReportColumns<Product> TASK_PRODUCT_COLUMNS = ReportColumns.of(
+            ReportColumn.text("Name", 3, Product::getName),
+            ReportColumn.text("Code", 3, Product::getCode),
+            ReportColumn.ofDouble("Width", 2, Product::getWidth),
+            ReportColumn.ofDouble("Height", 2, Product::getHeight),
+            ReportColumn.ofDouble("Length", 2, Product::getLength),
+            ReportColumn.ofDouble("Weight", 2, Product::getWeight));
+    private static final ReportColumns<Warehouse> TASK_WAREHOUSE_COLUMNS = ReportColumns.of(
+            ReportColumn.text("Building", 3, Warehouse::getBuilding),
+            ReportColumn.text("Zone", 2, Warehouse::getZone),
+            ReportColumn.of("SpaceId", 2, Warehouse::getSpaceId),
+            ReportColumn.ofInt("SpaceHeight", 2, Warehouse::getSpaceHeight),
+            ReportColumn.ofInt("SpaceWidth", 2, Warehouse::getSpaceWidth),
+            ReportColumn.ofInt("SpaceLength", 2, Warehouse::getSpaceLength),
+            ReportColumn.of("ProductId", 2, Warehouse::getProductId));
+    private static final String[] SUMMARY_HEADERS = {"Statistic", "Value"};
+
+    private final ReportOptions options;
+    private final ReportStyles styles = new ReportStyles();
+    private final ReportHeaderCache headerCache;
+    private final ChartCache<ImageData> pieChartCache = new ChartCache<>(PIE_CHART_CACHE_SIZE);
+    private final ChartCache<byte[]> vectorPieChartCache = new ChartCache<>(PIE_CHART_CACHE_SIZE);
+
+    public PdfGeneratorService() {
+        this(new ReportOptions());
+    }
+
+    public PdfGeneratorService(ReportOptions options) {
+        this.options = options;
+        this.headerCache = new ReportHeaderCache(options.getFontProvider());
+    }
+
+    public ReportOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Returns the cache of rendered task state pie charts, e.g. to read its hit and miss counters.
+     */
+    public ChartCache<ImageData> getPieChartCache() {
+        return pieChartCache;
+    }
+
+    /**
+     * Returns the cache of task state pie charts exported as SVG for {@link ChartMode#VECTOR}.
+     */
+    public ChartCache<byte[]> getVectorPieChartCache() {
+        return vectorPieChartCache;
+    }
+
     public ByteArrayInputStream generateUserReport(List<User> users, boolean includeTasks) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try (PdfWriter writer = new PdfWriter(out)) {
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc, PageSize.A4);
-
-            // Get current date
-            LocalDate currentDate = LocalDate.now();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMMM, yyyy", Locale.ENGLISH);
-            String formattedDate = currentDate.format(formatter);
-
-            // Add title
-            Paragraph title = new Paragraph("User Report")
-                    .setFontSize(20)
-                    .setBold()
-                    .setMarginBottom(10);
-            document.add(title);
-
-            // Add current date
-            Paragraph dateParagraph = new Paragraph("Date: " + formattedDate)
-                    .setFontSize(12)
-                    .setMarginBottom(10);
-            document.add(dateParagraph);
-
-            // Add line separator
-            LineSeparator ls = new LineSeparator(new SolidLine());
-            ls.setHorizontalAlignment(HorizontalAlignment.CENTER);
-            ls.setMarginBottom(20);
-            document.add(ls);
+        ReportByteArrayOutputStream out = new ReportByteArrayOutputStream();
+        try {
+            generateUserReport(users, includeTasks, out);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return out.toInputStream();
+    }
 
-            // Define table with 6 columns
-            Table table = new Table(UnitValue.createPercentArray(new float[]{2, 2, 2, 2, 2, 2}))
-                    .setWidth(UnitValue.createPercentValue(100))
-                    .setMarginBottom(20);
-
-            // Add header cells
-            String[] headers = {"Username", "Name", "Lastname", "PESEL", "Email", "Phone Number"};
-            for (String header : headers) {
-                table.addHeaderCell(new Paragraph(header)
-                        .setBackgroundColor(ColorConstants.LIGHT_GRAY)
-                        .setBold()
-                        .setBorder(Border.NO_BORDER));
-            }
+    /**
+     * Renders the user report into memory, or into a temporary file once it grows past {@code spillThreshold}
+     * bytes, and returns a reader of it. Closing the reader deletes the file.
+     *
+     * @see SpillingOutputStream
+     */
+    public InputStream generateUserReport(List<User> users, boolean includeTasks, long spillThreshold) throws IOException {
+        SpillingOutputStream out = new SpillingOutputStream(spillThreshold);
+        try {
+            generateUserReport(users, includeTasks, out);
+            out.close();
+            return out.toInputStream();
+        } finally {
+            out.discard();
+        }
+    }
 
-            // Add data cells
-            for (User user : users) {
-                table.addCell(new Paragraph(user.getUsername()).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(user.getName()).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(user.getLastname()).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(user.getPesel()).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(user.getEmail()).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(user.getPhoneNumber()).setBorder(Border.NO_BORDER));
+    public void generateUserReport(Iterable<User> users, boolean includeTasks, WritableByteChannel channel) throws IOException {
+        generateUserReport(users, includeTasks, Channels.newOutputStream(channel));
+    }
+
+    public void generateUserReport(Iterable<User> users, boolean includeTasks, Path target) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            generateUserReport(users, includeTasks, out);
+        }
+    }
 
-                if (includeTasks) {
+    /**
+     * Writes the user report straight into {@code out}. Pages are flushed to the stream as soon as
+     * they are laid out, so only the page currently being rendered is held in memory.
+     * The stream is not closed.
+     * <p>
+     * {@code users} is iterated lazily while the table is written. With {@code includeTasks} the task notes
+     * precede the table and need a pass of their own, so an {@code Iterable} that is not a {@link Collection},
+     * which may only be iterable once, is collected into a list first.
+     */
+    public void generateUserReport(Iterable<User> users, boolean includeTasks, OutputStream out) throws IOException {
+        if (includeTasks && !(users instanceof Collection)) {
+            List<User> collected = new ArrayList<>();
+            users.forEach(collected::add);
+            users = collected;
+        }
+        ReportRecorder recorder = newRecorder("user");
+        try (PdfWriter writer = newWriter(recorder.countBytes(out))) {
+            PdfDocument pdfDoc = new PdfDocument(writer);
+            Document document = newDocument(pdfDoc, recorder);
+
+            addReportHeader(document, "User Report");
+
+            if (includeTasks) {
+                for (User user : users) {
                     // This could be improved by listing tasks in the table, but we'll maintain a paragraph for now
                     document.add(new Paragraph("Tasks for " + user.getName() + " " + user.getLastname() + ":")
                             .setMarginTop(10));
                 }
             }
 
-            // Add table to document
-            document.add(table);
+            recorder.addRows(addLargeTable(document, USER_REPORT_COLUMNS, users));
 
             document.close();
+        } catch (IOException | RuntimeException e) {
+            recorder.failed(e);
+            throw e;
+        }
+        recorder.completed();
+    }
+
+
+    /**
+     * Writes the user report from a stream that is consumed while the PDF is written. With {@code includeTasks}
+     * the task notes precede the table, so the stream is collected first in that case.
+     */
+    public void generateUserReport(Stream<User> users, boolean includeTasks, OutputStream out) throws IOException {
+        generateUserReport(users::iterator, includeTasks, out);
+    }
+
+    public ByteArrayInputStream generateWarehouseReport(List<Warehouse> warehouses) {
+        ReportByteArrayOutputStream out = new ReportByteArrayOutputStream();
+        try {
+            generateWarehouseReport(warehouses, out);
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return new ByteArrayInputStream(out.toByteArray());
+        return out.toInputStream();
     }
 
+    /**
+     * Like {@link #generateUserReport(List, boolean, long)}, for the warehouse report.
+     */
+    public InputStream generateWarehouseReport(List<Warehouse> warehouses, long spillThreshold) throws IOException {
+        SpillingOutputStream out = new SpillingOutputStream(spillThreshold);
+        try {
+            generateWarehouseReport(warehouses, out);
+            out.close();
+            return out.toInputStream();
+        } finally {
+            out.discard();
+        }
+    }
 
-    public ByteArrayInputStream generateWarehouseReport(List<Warehouse> warehouses) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try (PdfWriter writer = new PdfWriter(out)) {
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc, PageSize.A4);
-
-            // Get current date
-            LocalDate currentDate = LocalDate.now();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMMM, yyyy", Locale.ENGLISH);
-            String formattedDate = currentDate.format(formatter);
-
-            // Add title
-            Paragraph title = new Paragraph("Warehouse Report")
-                    .setFontSize(20)
-                    .setBold()
-                    .setMarginBottom(10);
-            document.add(title);
-
-            // Add current date
-            Paragraph dateParagraph = new Paragraph("Date: " + formattedDate)
-                    .setFontSize(12)
-                    .setMarginBottom(10);
-            document.add(dateParagraph);
-
-            // Add line separator
-            LineSeparator ls = new LineSeparator(new SolidLine());
-            ls.setHorizontalAlignment(HorizontalAlignment.CENTER);
-            ls.setMarginBottom(20);
-            document.add(ls);
+    public void generateWarehouseReport(Iterable<Warehouse> warehouses, WritableByteChannel channel) throws IOException {
+        generateWarehouseReport(warehouses, Channels.newOutputStream(channel));
+    }
 
-            // Define table with 7 columns
-            Table table = new Table(UnitValue.createPercentArray(new float[]{2, 1, 2, 3, 3, 3, 3}))
-                    .setWidth(UnitValue.createPercentValue(100))
-                    .setMarginBottom(20);
-
-            // Add header cells with uniform background color
-            String[] headers = {"Building", "Zone", "Space ID", "Space Height", "Space Width", "Space Length", "Product ID"};
-            for (String header : headers) {
-                table.addHeaderCell(new Paragraph(header)
-                        .setBackgroundColor(ColorConstants.LIGHT_GRAY)
-                        .setBold()
-                        .setBorder(Border.NO_BORDER)); // Ensure borders are not visible
-            }
+    public void generateWarehouseReport(Iterable<Warehouse> warehouses, Path target) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            generateWarehouseReport(warehouses, out);
+        }
+    }
 
-            // Add data cells
-            for (Warehouse warehouse : warehouses) {
-                table.addCell(new Paragraph(warehouse.getBuilding()).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(warehouse.getZone()).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(String.valueOf(warehouse.getSpaceId())).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(String.valueOf(warehouse.getSpaceHeight())).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(String.valueOf(warehouse.getSpaceWidth())).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(String.valueOf(warehouse.getSpaceLength())).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(String.valueOf(warehouse.getProductId())).setBorder(Border.NO_BORDER));
-            }
+    public void generateWarehouseReport(Iterable<Warehouse> warehouses, OutputStream out) throws IOException {
+        generateListingReport("warehouse", "Warehouse Report", WAREHOUSE_REPORT_COLUMNS, warehouses, out);
+    }
 
-            // Add table to document
-            document.add(table);
-            document.close();
+    public void generateWarehouseReport(Stream<Warehouse> warehouses, OutputStream out) throws IOException {
+        generateWarehouseReport(warehouses::iterator, out);
+    }
+
+    /**
+     * Writes the warehouse report from a columnar batch, with the same content as from the equivalent
+     * {@code Warehouse} objects. The stream is not closed.
+     */
+    public void generateWarehouseReport(WarehouseColumns warehouses, OutputStream out) throws IOException {
+        generateListingReport("warehouse", "Warehouse Report", WAREHOUSE_BATCH_COLUMNS, warehouses.rows(), out);
+    }
+
+    public ByteArrayInputStream generateProductReport(List<Product> products) {
+        ReportByteArrayOutputStream out = new ReportByteArrayOutputStream();
+        try {
+            generateProductReport(products, out);
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return new ByteArrayInputStream(out.toByteArray());
+        return out.toInputStream();
     }
 
-    public ByteArrayInputStream generateProductReport(List<Product> products) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try (PdfWriter writer = new PdfWriter(out)) {
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc);
-
-            // Get current date
-            LocalDate currentDate = LocalDate.now();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMMM, yyyy", Locale.ENGLISH);
-            String formattedDate = currentDate.format(formatter);
-
-            // Add title
-            Paragraph title = new Paragraph("Product In Warehouse Report")
-                    .setFontSize(20)
-                    .setBold()
-                    .setMarginBottom(10);
-            document.add(title);
-
-            // Add current date
-            Paragraph dateParagraph = new Paragraph("Date: " + formattedDate)
-                    .setFontSize(12)
-                    .setMarginBottom(10);
-            document.add(dateParagraph);
-
-            // Add line separator
-            LineSeparator ls = new LineSeparator(new SolidLine());
-            ls.setHorizontalAlignment(HorizontalAlignment.CENTER);
-            ls.setMarginBottom(20);
-            document.add(ls);
+    /**
+     * Like {@link #generateUserReport(List, boolean, long)}, for the product report.
+     */
+    public InputStream generateProductReport(List<Product> products, long spillThreshold) throws IOException {
+        SpillingOutputStream out = new SpillingOutputStream(spillThreshold);
+        try {
+            generateProductReport(products, out);
+            out.close();
+            return out.toInputStream();
+        } finally {
+            out.discard();
+        }
+    }
 
-            // Define table with 6 columns
-            Table table = new Table(UnitValue.createPercentArray(new float[]{4, 3, 2, 2, 2, 2}))
-                    .setWidth(UnitValue.createPercentValue(100))
-                    .setMarginBottom(20);
-
-            // Add header cells
-            table.addHeaderCell(new Paragraph("Product").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-            table.addHeaderCell(new Paragraph("Code").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-            table.addHeaderCell(new Paragraph("Width").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-            table.addHeaderCell(new Paragraph("Height").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-            table.addHeaderCell(new Paragraph("Length").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-            table.addHeaderCell(new Paragraph("Weight").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-
-            // Add data cells
-            for (Product product : products) {
-                table.addCell(new Paragraph(product.getName()).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(product.getCode()).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(String.valueOf(product.getWidth())).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(String.valueOf(product.getHeight())).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(String.valueOf(product.getLength())).setBorder(Border.NO_BORDER));
-                table.addCell(new Paragraph(String.valueOf(product.getWeight())).setBorder(Border.NO_BORDER));
-            }
+    public void generateProductReport(Iterable<Product> products, WritableByteChannel channel) throws IOException {
+        generateProductReport(products, Channels.newOutputStream(channel));
+    }
+
+    public void generateProductReport(Iterable<Product> products, Path target) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            generateProductReport(products, out);
+        }
+    }
 
-            // Add table to document
-            document.add(table);
+    public void generateProductReport(Iterable<Product> products, OutputStream out) throws IOException {
+        generateListingReport("product", "Product In Warehouse Report", PRODUCT_REPORT_COLUMNS, products, out);
+    }
+
+    public void generateProductReport(Stream<Product> products, OutputStream out) throws IOException {
+        generateProductReport(products::iterator, out);
+    }
+
+    /**
+     * Writes the product report from a columnar batch, with the same content as from the equivalent
+     * {@code Product} objects. The stream is not closed.
+     */
+    public void generateProductReport(ProductColumns products, OutputStream out) throws IOException {
+        generateListingReport("product", "Product In Warehouse Report", PRODUCT_BATCH_COLUMNS, products.rows(), out);
+    }
+
+    /**
+     * Writes a report of arbitrary rows as one large table with the given columns, under the usual header with
+     * {@code title}. Rows are iterated once and flushed like those of the built-in reports. The stream is not
+     * closed.
+     */
+    public <T> void generateTableReport(String title, ReportColumns<T> columns, Iterable<T> rows, OutputStream out) throws IOException {
+        ReportRecorder recorder = newRecorder("table");
+        try (PdfWriter writer = newWriter(recorder.countBytes(out))) {
+            PdfDocument pdfDoc = new PdfDocument(writer);
+            Document document = newDocument(pdfDoc, recorder);
+
+            addReportHeader(document, title);
+            recorder.addRows(addLargeTable(document, columns, rows));
             document.close();
+        } catch (IOException | RuntimeException e) {
+            recorder.failed(e);
+            throw e;
+        }
+        recorder.completed();
+    }
+
+    public ByteArrayInputStream generateTaskReport(List<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart) {
+        ReportByteArrayOutputStream out = new ReportByteArrayOutputStream();
+        try {
+            generateTaskReport(tasks, includeUsers, includeProducts, includeWarehouses, includePieChart, out);
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return new ByteArrayInputStream(out.toByteArray());
+        return out.toInputStream();
     }
 
-    public ByteArrayInputStream generateTaskReport(List<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try (PdfWriter writer = new PdfWriter(out)) {
+    /**
+     * Like {@link #generateUserReport(List, boolean, long)}, for the task report.
+     */
+    public InputStream generateTaskReport(List<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart, long spillThreshold) throws IOException {
+        SpillingOutputStream out = new SpillingOutputStream(spillThreshold);
+        try {
+            generateTaskReport(tasks, includeUsers, includeProducts, includeWarehouses, includePieChart, out);
+            out.close();
+            return out.toInputStream();
+        } finally {
+            out.discard();
+        }
+    }
+
+    public void generateTaskReport(Iterable<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart,
+                                   WritableByteChannel channel) throws IOException {
+        generateTaskReport(tasks, includeUsers, includeProducts, includeWarehouses, includePieChart, Channels.newOutputStream(channel));
+    }
+
+    public void generateTaskReport(Iterable<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart,
+                                   Path target) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            generateTaskReport(tasks, includeUsers, includeProducts, includeWarehouses, includePieChart, out);
+        }
+    }
+
+    /**
+     * Writes the task report to {@code out}. When the tasks are a {@link Collection} and a chart executor is
+     * configured, the pie chart is rendered on that executor while the task tables are laid out; other inputs
+     * can only be counted as they are rendered, so their chart is rendered after the tables.
+     */
+    public void generateTaskReport(Iterable<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart,
+                                   OutputStream out) throws IOException {
+        generateTaskReport(tasks, includeUsers, includeProducts, includeWarehouses, includePieChart, out, null);
+    }
+
+    /**
+     * Writes the task report into {@code out} and tells {@code listener} about its pages as they are written, so a
+     * caller can deliver the report progressively and cancel it part way by throwing
+     * {@link ReportCancelledException} from the listener. The stream is flushed after every page.
+     */
+    public void generateTaskReport(Iterable<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart,
+                                   OutputStream out, ReportPageListener listener) throws IOException {
+        ReportRecorder recorder = newRecorder("task");
+        CompletableFuture<Long> pieChart = includePieChart ? prerenderPieChart(tasks) : null;
+        PageProgress progress;
+        try (PdfWriter writer = newWriter(recorder.countBytes(out))) {
             PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc);
-
-            // Get current date
-            LocalDate currentDate = LocalDate.now();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMMM, yyyy", Locale.ENGLISH);
-            String formattedDate = currentDate.format(formatter);
-
-            // Add title
-            Paragraph title = new Paragraph("Task Report")
-                    .setFontSize(20)
-                    .setBold()
-                    .setMarginBottom(10);
-            document.add(title);
-
-            // Add current date
-            Paragraph dateParagraph = new Paragraph("Date: " + formattedDate)
-                    .setFontSize(12)
-                    .setMarginBottom(10);
-            document.add(dateParagraph);
-
-            // Add line separator
-            LineSeparator ls = new LineSeparator(new SolidLine());
-            ls.setHorizontalAlignment(HorizontalAlignment.CENTER);
-            ls.setMarginBottom(20);
-            document.add(ls);
+            progress = PageProgress.attach(pdfDoc, recorder, listener);
+            Document document = newDocument(pdfDoc, recorder);
+
+            Image header = addReportHeader(document, "Task Report");
+
+            long layoutStart = System.nanoTime();
+            TaskStatistics statistics = addTasks(tasks, document, includeUsers, includeProducts, includeWarehouses);
+            boolean pieChartRendered = pieChart != null && awaitPieChart(pieChart, System.nanoTime() - layoutStart);
+            ReportMetadata metadata = newMetadata(pdfDoc, "task", "Task Report", header, statistics.getTaskCount());
+            if (metadata != null) {
+                metadata.setTaskFlags(includeUsers, includeProducts, includeWarehouses, includePieChart);
+                metadata.setStatistics(statistics);
+            }
+            addTrailingSections(document, statistics, includePieChart, pieChartRendered, metadata);
+            recorder.addRows(statistics.getTaskCount());
 
-            for (Tasks task : tasks) {
-                addTaskToDocument(task, document, includeUsers, includeProducts, includeWarehouses);
-                document.add(new Paragraph("\n"));  // Add space between tasks
+            document.close();
+        } catch (PageProgress.WriteFailure e) {
+            cancelPieChart(pieChart);
+            recorder.failed(e.getCause());
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            cancelPieChart(pieChart);
+            recorder.failed(e);
+            throw e;
+        }
+        recorder.completed();
+        if (progress != null) {
+            progress.documentClosed();
+        }
+    }
+
+    public void generateTaskReportInParallel(List<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart,
+                                             OutputStream out) throws IOException {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunkSize = Math.max(MIN_PARALLEL_CHUNK_SIZE, (tasks.size() + parallelism - 1) / parallelism);
+        generateTaskReportInParallel(tasks, includeUsers, includeProducts, includeWarehouses, includePieChart,
+                chunkSize, ForkJoinPool.commonPool(), out);
+    }
+
+    /**
+     * Writes the task report by rendering runs of {@code chunkSize} tasks into separate documents on
+     * {@code executor} and merging them in order into {@code out}. The first chunk carries the report header
+     * and the last one the pie chart, so the merged report reads like the sequential one, except that every
+     * chunk starts on a new page. Chunks are merged as soon as they and all chunks before them are done.
+     */
+    public void generateTaskReportInParallel(List<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart,
+                                             int chunkSize, ExecutorService executor, OutputStream out) throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        ReportRecorder recorder = newRecorder("task");
+        try {
+            renderTaskReportInParallel(tasks, includeUsers, includeProducts, includeWarehouses, includePieChart, chunkSize, executor, out, recorder);
+        } catch (IOException | RuntimeException e) {
+            recorder.failed(e);
+            throw e;
+        }
+        recorder.completed();
+    }
+
+    /**
+     * Renders and merges the chunks of a parallel task report. Waiting for chunks is booked as layout and merging
+     * as writing, since that is what the chunk threads and the merge spend their time on.
+     */
+    private void renderTaskReportInParallel(List<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses,
+                                            boolean includePieChart, int chunkSize, ExecutorService executor, OutputStream out,
+                                            ReportRecorder recorder) throws IOException {
+        // The last chunk carries the sections about all tasks, so their statistics are gathered up front
+        TaskStatistics statistics = includePieChart || options.isIncludeTaskSummary() ? TaskStatistics.of(tasks) : null;
+        CompletableFuture<Long> pieChart = includePieChart && options.getChartExecutor() != null
+                ? prerenderPieChart(statistics.getStateCounts()) : null;
+        int chunkCount = Math.max(1, (tasks.size() + chunkSize - 1) / chunkSize);
+
+        List<CompletableFuture<ReportByteArrayOutputStream>> chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            List<Tasks> chunk = tasks.subList(Math.min(i * chunkSize, tasks.size()), Math.min((i + 1) * chunkSize, tasks.size()));
+            boolean first = i == 0;
+            boolean last = i == chunkCount - 1;
+            TaskStatistics chunkStatistics = last ? statistics : null;
+            CompletableFuture<Long> chunkPieChart = last ? pieChart : null;
+            chunks.add(CompletableFuture.supplyAsync(() ->
+                    renderTaskChunk(chunk, first, chunkStatistics, chunkPieChart, includeUsers, includeProducts, includeWarehouses,
+                            includePieChart, recorder), executor));
+        }
+
+        try (PdfWriter writer = newWriter(recorder.countBytes(out))) {
+            PdfDocument pdfDoc = new PdfDocument(writer);
+            PdfMerger merger = new PdfMerger(pdfDoc, new PdfMergerProperties()
+                    .setCloseSrcDocuments(false).setMergeTags(false).setMergeOutlines(false));
+            for (CompletableFuture<ReportByteArrayOutputStream> chunk : chunks) {
+                long waitStart = System.nanoTime();
+                ReportByteArrayOutputStream chunkOut = chunk.join();
+                long mergeStart = System.nanoTime();
+                recorder.addStageNanos(ReportStage.LAYOUT, mergeStart - waitStart);
+                try (PdfDocument chunkDoc = new PdfDocument(new PdfReader(chunkOut.toInputStream()))) {
+                    merger.merge(chunkDoc, 1, chunkDoc.getNumberOfPages());
+                }
+                recorder.addStageNanos(ReportStage.WRITE, System.nanoTime() - mergeStart);
+            }
+            recorder.addRows(tasks.size());
+            recorder.setPages(pdfDoc.getNumberOfPages());
+            long closeStart = System.nanoTime();
+            pdfDoc.close();
+            recorder.addStageNanos(ReportStage.WRITE, System.nanoTime() - closeStart);
+        } catch (CompletionException e) {
+            for (CompletableFuture<ReportByteArrayOutputStream> chunk : chunks) {
+                chunk.cancel(false);
             }
+            cancelPieChart(pieChart);
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            cancelPieChart(pieChart);
+            throw e;
+        }
+    }
+
+    /**
+     * Renders one chunk of a parallel task report. {@code statistics} are those of the whole report and are only
+     * passed to the last chunk, which ends with the summary and pie chart, together with the pie chart being
+     * rendered ahead, if any, which it waits for instead of rendering the chart a second time.
+     */
+    private ReportByteArrayOutputStream renderTaskChunk(List<Tasks> chunk, boolean withHeader, TaskStatistics statistics,
+                                                        CompletableFuture<Long> pieChart,
+                                                        boolean includeUsers, boolean includeProducts, boolean includeWarehouses,
+                                                        boolean includePieChart, ReportRecorder recorder) {
+        long allocationStart = ReportRecorder.currentThreadAllocatedBytes();
+        ReportByteArrayOutputStream out = new ReportByteArrayOutputStream();
+        try (PdfWriter writer = newWriter(out)) {
+            PdfDocument pdfDoc = new PdfDocument(writer);
+            // Stages are timed by the merging thread, so the chunk's document is not metered
+            Document document = newDocument(pdfDoc, null);
 
-            if (includePieChart) {
-                document.add(ls);
-                Image pieChartImage = createPieChart(tasks);
-                document.add(pieChartImage);
+            if (withHeader) {
+                addReportHeader(document, "Task Report");
+            }
+            long layoutStart = System.nanoTime();
+            addTasks(chunk, document, includeUsers, includeProducts, includeWarehouses);
+            boolean pieChartRendered = pieChart != null && awaitPieChart(pieChart, System.nanoTime() - layoutStart);
+            if (statistics != null) {
+                addTrailingSections(document, statistics, includePieChart, pieChartRendered, null);
             }
 
             document.close();
-        } catch (Exception e) {
-            e.printStackTrace();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            long allocationEnd = ReportRecorder.currentThreadAllocatedBytes();
+            if (allocationStart >= 0 && allocationEnd >= 0) {
+                recorder.addAllocatedBytes(allocationEnd - allocationStart);
+            }
         }
-        return new ByteArrayInputStream(out.toByteArray());
+        return out;
+    }
+
+    /**
+     * Writes the task report from a stream that is consumed while the PDF is written.
+     */
+    public void generateTaskReport(Stream<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart,
+                                   OutputStream out) throws IOException {
+        generateTaskReport(tasks::iterator, includeUsers, includeProducts, includeWarehouses, includePieChart, out);
+    }
+
+    /**
+     * Writes a ZIP archive to {@code out} with one entry per job, named by its key, in iteration order. Each
+     * report is rendered straight into its entry, so no report is buffered whole; see
+     * {@link PdfBatchGenerator#writeZip(Map, OutputStream)} to render the entries concurrently. The archive is
+     * finished but {@code out} is not closed.
+     */
+    public void generateZip(Map<String, ReportJob> jobs, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, ZIP_BUFFER_SIZE);
+        ZipOutputStream zip = new ZipOutputStream(buffered);
+        for (Map.Entry<String, ReportJob> entry : jobs.entrySet()) {
+            zip.putNextEntry(new ZipEntry(entry.getKey()));
+            entry.getValue().render(this, zip);
+            zip.closeEntry();
+        }
+        zip.finish();
+        buffered.flush();
+    }
+
+    /**
+     * Adds {@code warehouses} to the warehouse report in {@code report}, which must have been written with
+     * {@link ReportOptions#setAppendable(boolean)}, and refreshes the date in its header. The rows go on new pages
+     * written as an incremental update at the end of the file, so the existing pages are neither laid out nor
+     * written again.
+     */
+    public void appendWarehouseReport(Path report, Iterable<Warehouse> warehouses) throws IOException {
+        appendToReport(report, "warehouse", (document, metadata) -> addLargeTable(document, WAREHOUSE_REPORT_COLUMNS, warehouses));
+    }
+
+    public void appendWarehouseReport(Path report, WarehouseColumns warehouses) throws IOException {
+        appendToReport(report, "warehouse", (document, metadata) -> addLargeTable(document, WAREHOUSE_BATCH_COLUMNS, warehouses.rows()));
+    }
+
+    /**
+     * Like {@link #appendWarehouseReport(Path, Iterable)}, for the product report.
+     */
+    public void appendProductReport(Path report, Iterable<Product> products) throws IOException {
+        appendToReport(report, "product", (document, metadata) -> addLargeTable(document, PRODUCT_REPORT_COLUMNS, products));
     }
 
-    private void addTaskToDocument(Tasks task, Document document, boolean includeUsers, boolean includeProducts, boolean includeWarehouses) {
+    public void appendProductReport(Path report, ProductColumns products) throws IOException {
+        appendToReport(report, "product", (document, metadata) -> addLargeTable(document, PRODUCT_BATCH_COLUMNS, products.rows()));
+    }
+
+    /**
+     * Adds {@code tasks} to the task report in {@code report}, which must have been written by
+     * {@link #generateTaskReport(Iterable, boolean, boolean, boolean, boolean, OutputStream)} with
+     * {@link ReportOptions#setAppendable(boolean)}. The tasks are rendered with the sections of the original report
+     * on new pages. The pages of its summary and pie chart are dropped and the sections are rendered again after the
+     * new tasks, from the statistics stored with the report combined with those of the new tasks. Like the other
+     * append methods, only the new pages are written, as an incremental update.
+     */
+    public void appendTaskReport(Path report, Iterable<Tasks> tasks) throws IOException {
+        appendToReport(report, "task", (document, metadata) -> {
+            TaskStatistics added = addTasks(tasks, document,
+                    metadata.isIncludeUsers(), metadata.isIncludeProducts(), metadata.isIncludeWarehouses());
+            TaskStatistics statistics = metadata.getStatistics().combine(added);
+            metadata.setStatistics(statistics);
+            addTrailingSections(document, statistics, metadata.isIncludePieChart(), false, metadata);
+            return added.getTaskCount();
+        });
+    }
+
+    /**
+     * Opens {@code report} in append mode, drops the pages of its trailing sections and lets {@code appender} add
+     * rows on new pages after the last one. The update is written straight to the end of the file: iText copies
+     * the original bytes ahead of an update, which are dropped here since they are already in place. A failed
+     * update is cut off again so the report stays as it was.
+     */
+    private void appendToReport(Path report, String reportType, ReportAppender appender) throws IOException {
+        ReportRecorder recorder = newRecorder(reportType);
+        try (FileChannel file = FileChannel.open(report, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long length = file.size();
+            file.position(length);
+            PdfReader reader = new PdfReader(report.toFile());
+            try {
+                PdfWriter writer = newWriter(new SkippingOutputStream(recorder.countBytes(Channels.newOutputStream(file)), length));
+                PdfDocument pdfDoc = new PdfDocument(reader, writer, new StampingProperties().useAppendMode());
+                ReportMetadata metadata = ReportMetadata.read(pdfDoc, reportType);
+                // The page tree is written again only with a modified catalog
+                pdfDoc.getCatalog().setModified();
+                Document document = newDocument(pdfDoc, recorder);
+
+                refreshHeader(document, metadata);
+                int trailingPage = metadata.getTrailingPage();
+                if (trailingPage > 0) {
+                    for (int page = pdfDoc.getNumberOfPages(); page >= trailingPage; page--) {
+                        pdfDoc.removePage(page);
+                    }
+                }
+                // Layout of a document over an existing PDF starts on its first page
+                document.add(new AreaBreak(AreaBreakType.LAST_PAGE));
+                document.add(new AreaBreak(AreaBreakType.NEXT_PAGE));
+                long rows = appender.append(document, metadata);
+                metadata.setRows(metadata.getRows() + rows);
+                recorder.addRows(rows);
+
+                document.close();
+            } catch (IOException | RuntimeException e) {
+                reader.close();
+                file.truncate(length);
+                recorder.failed(e);
+                throw e;
+            }
+        }
+        recorder.completed();
+    }
+
+    /**
+     * Points the first page at a header laid out for today instead of the one it was rendered with.
+     */
+    private void refreshHeader(Document document, ReportMetadata metadata) throws IOException {
+        PdfStream previous = metadata.getHeader();
+        if (previous == null) {
+            return;
+        }
+        PdfStream header = headerCache.header(document, metadata.getTitle()).getXObject().getPdfObject();
+        PdfPage page = document.getPdfDocument().getFirstPage();
+        PdfDictionary xObjects = page.getResources().getResource(PdfName.XObject);
+        if (xObjects == null) {
+            return;
+        }
+        for (PdfName name : xObjects.keySet()) {
+            PdfObject xObject = xObjects.get(name, false);
+            if (xObject != null && xObject.equals(previous.getIndirectReference())) {
+                xObjects.put(name, header);
+                xObjects.setModified();
+                page.getResources().getPdfObject().setModified();
+                page.setModified();
+                metadata.setHeader(header);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds the title, current date and separator, stamped from the header laid out once for today.
+     */
+    private Image addReportHeader(Document document, String title) throws IOException {
+        Image header = headerCache.header(document, title);
+        document.add(header);
+        return header;
+    }
+
+    private LineSeparator newSectionSeparator() {
+        LineSeparator ls = new LineSeparator(new SolidLine());
+        ls.setHorizontalAlignment(HorizontalAlignment.CENTER);
+        ls.setMarginBottom(20);
+        return ls;
+    }
+
+    /**
+     * Adds every task to the document in the configured layout and returns their statistics, gathered on the
+     * way through so the tasks are iterated only once.
+     */
+    private TaskStatistics addTasks(Iterable<Tasks> tasks, Document document, boolean includeUsers, boolean includeProducts, boolean includeWarehouses) {
+        if (options.getTaskLayout() == TaskLayout.COMPACT) {
+            return addCompactTasks(tasks, document, includeUsers, includeProducts, includeWarehouses);
+        }
+        TaskSectionCache sections = options.isDeduplicateTaskSections() ? new TaskSectionCache(document, contentHeight(document)) : null;
+        TaskStatistics statistics = new TaskStatistics();
+        for (Tasks task : tasks) {
+            addTaskToDocument(task, document, sections, includeUsers, includeProducts, includeWarehouses);
+            document.add(new Paragraph("\n"));  // Add space between tasks
+            statistics.accept(task);
+        }
+        return statistics;
+    }
+
+    /**
+     * Adds every task as one row of a single large table whose header repeats on each page. A task's optional
+     * sections follow its row in a cell spanning the whole table.
+     */
+    private TaskStatistics addCompactTasks(Iterable<Tasks> tasks, Document document, boolean includeUsers, boolean includeProducts, boolean includeWarehouses) {
+        TaskSectionCache sections = options.isDeduplicateTaskSections()
+                ? new TaskSectionCache(document, contentHeight(document) - COMPACT_HEADER_RESERVE) : null;
+        Table table = new Table(UnitValue.createPercentArray(COMPACT_TASK_COLUMNS.widths()), true)
+                .setWidth(UnitValue.createPercentValue(100))
+                .setTextAlignment(TextAlignment.LEFT);
+        styles.addHeaderRow(table, COMPACT_TASK_COLUMNS.headers());
+        document.add(table);
+
+        boolean withSections = includeUsers || includeProducts || includeWarehouses;
+        // A task with sections can fill a good part of a page, and rows held back until the next flush are laid
+        // out again on every page break they are carried across
+        int flushRows = withSections ? 1 : LARGE_TABLE_FLUSH_ROWS;
+        TaskStatistics statistics = new TaskStatistics();
+        int rows = 0;
+        for (Tasks task : tasks) {
+            COMPACT_TASK_COLUMNS.addRow(table, task);
+            if (withSections) {
+                Div taskSections = new Div();
+                if (includeUsers) {
+                    addSection(taskSections, sections, "Users:", task.getUsers(), () -> usersSection(task));
+                }
+                if (includeProducts) {
+                    addSection(taskSections, sections, "Products:", task.getProducts(), () -> productsSection(task));
+                }
+                if (includeWarehouses) {
+                    addSection(taskSections, sections, "Warehouses:", task.getWarehouses(), () -> warehousesSection(task));
+                }
+                table.addCell(new Cell(1, COMPACT_TASK_COLUMNS.size())
+                        .add(taskSections)
+                        .setPadding(0)
+                        .setBorder(Border.NO_BORDER));
+            }
+            statistics.accept(task);
+            if (++rows % flushRows == 0) {
+                table.flush();
+            }
+        }
+        table.complete();
+        return statistics;
+    }
+
+    /**
+     * Adds the sections that follow the tasks: the summary when it is enabled and the pie chart when requested.
+     */
+    private void addTrailingSections(Document document, TaskStatistics statistics, boolean includePieChart,
+                                     boolean pieChartRendered, ReportMetadata metadata) throws IOException {
+        if (metadata != null) {
+            int trailingPage = 0;
+            if (options.isIncludeTaskSummary() || includePieChart) {
+                // On a page of their own, the sections can be dropped when tasks are appended
+                document.add(new AreaBreak());
+                trailingPage = document.getPdfDocument().getNumberOfPages();
+            }
+            metadata.setTrailingPage(trailingPage);
+        }
+        if (options.isIncludeTaskSummary()) {
+            addSummarySection(document, statistics);
+        }
+        if (includePieChart) {
+            addPieChartSection(document, statistics.getStateCounts(), pieChartRendered);
+        }
+    }
+
+    private void addSummarySection(Document document, TaskStatistics statistics) {
+        document.add(newSectionSeparator());
+        Table summaryTable = new Table(UnitValue.createPercentArray(new float[]{1, 3}))
+                .setWidth(UnitValue.createPercentValue(100))
+                .setMarginBottom(10);
+
+        styles.addHeaderRow(summaryTable, SUMMARY_HEADERS);
+
+        addSummaryRow(summaryTable, "Tasks", String.valueOf(statistics.getTaskCount()));
+        addSummaryRow(summaryTable, "Active", String.valueOf(statistics.getActiveCount()));
+        addSummaryRow(summaryTable, "Inactive", String.valueOf(statistics.getInactiveCount()));
+        addSummaryRow(summaryTable, "By state", formatCounts("State ", statistics.getStateCounts()));
+        addSummaryRow(summaryTable, "By priority", formatCounts("Priority ", statistics.getPriorityCounts()));
+        addSummaryRow(summaryTable, "Created", statistics.getFirstCreationDate() + " - " + statistics.getLastCreationDate());
+        addSummaryRow(summaryTable, "First start", String.valueOf(statistics.getFirstStartDate()));
+        addSummaryRow(summaryTable, "Last end", String.valueOf(statistics.getLastEndDate()));
+
+        // Small enough to keep on one page together with its title
+        document.add(new Div()
+                .add(styles.sectionTitle("Summary:"))
+                .add(summaryTable)
+                .setKeepTogether(true));
+    }
+
+    private void addSummaryRow(Table table, String label, String value) {
+        table.addCell(label);
+        table.addCell(value);
+    }
+
+    private String formatCounts(String prefix, Map<Integer, Long> counts) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(prefix).append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Starts rendering the pie chart of {@code tasks} into the chart cache on the chart executor, so the report
+     * finds it there once its tables are laid out. Returns {@code null} when the tasks cannot be counted up front
+     * or no chart executor is configured.
+     * <p>
+     * The chart needs the state counts before the tables are laid out, so this reads the state of every task once
+     * more ahead of the single pass that gathers the report's statistics. Only the states are read, which costs far
+     * less than the chart render it lets run alongside the tables.
+     */
+    private CompletableFuture<Long> prerenderPieChart(Iterable<Tasks> tasks) {
+        if (!(tasks instanceof Collection) || options.getChartExecutor() == null) {
+            return null;
+        }
+        return prerenderPieChart(TaskStatistics.stateCountsOf(tasks));
+    }
+
+    /**
+     * Renders the pie chart for {@code taskStateCounts} into the chart cache on the chart executor and completes
+     * with the time it took in nanoseconds.
+     */
+    private CompletableFuture<Long> prerenderPieChart(Map<Integer, Long> taskStateCounts) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                if (options.getChartMode() == ChartMode.VECTOR) {
+                    vectorPieChartCache.get(taskStateCounts, this::renderVectorPieChart);
+                } else {
+                    pieChartCache.get(taskStateCounts, this::renderPieChart);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return System.nanoTime() - start;
+        }, options.getChartExecutor());
+    }
+
+    /**
+     * Waits for a pie chart started by {@link #prerenderPieChart} and logs how much of its rendering was hidden
+     * behind the {@code layoutNanos} spent on the task tables. Returns whether the chart was rendered into the
+     * cache. A failed render is only logged: the chart is then rendered again in line, which reports the failure to
+     * the caller.
+     */
+    private boolean awaitPieChart(CompletableFuture<Long> pieChart, long layoutNanos) {
+        long waitStart = System.nanoTime();
+        try {
+            long chartNanos = pieChart.join();
+            long waitNanos = System.nanoTime() - waitStart;
+            LOGGER.fine(() -> String.format("Task tables laid out in %d ms, pie chart rendered in %d ms alongside, %d ms waited for it",
+                    TimeUnit.NANOSECONDS.toMillis(layoutNanos), TimeUnit.NANOSECONDS.toMillis(chartNanos),
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+            return true;
+        } catch (CompletionException e) {
+            LOGGER.log(Level.FINE, "Pie chart could not be rendered ahead of the report", e.getCause());
+        } catch (CancellationException e) {
+            LOGGER.log(Level.FINE, "Pie chart rendered ahead of the report was cancelled", e);
+        }
+        return false;
+    }
+
+    /**
+     * Cancels a pie chart rendered ahead for a report that failed or was cancelled. A render that has not started
+     * yet is skipped; one that is running cannot be stopped and still fills the cache.
+     */
+    private static void cancelPieChart(CompletableFuture<Long> pieChart) {
+        if (pieChart != null) {
+            pieChart.cancel(false);
+        }
+    }
+
+    private void addPieChartSection(Document document, Map<Integer, Long> taskStateCounts, boolean rendered) throws IOException {
+        document.add(newSectionSeparator());
+        long chartStart = System.nanoTime();
+        Image pieChartImage = createPieChart(taskStateCounts, document.getPdfDocument(), rendered);
+        if (document instanceof ReportDocument) {
+            ((ReportDocument) document).getRecorder().addStageNanos(ReportStage.CHART, System.nanoTime() - chartStart);
+        }
+        document.add(pieChartImage);
+    }
+
+    /**
+     * Creates an A4 layout document set in the configured report font, which books its layout and writing time
+     * to {@code recorder} unless it is {@code null}.
+     */
+    private Document newDocument(PdfDocument pdfDoc, ReportRecorder recorder) throws IOException {
+        Document document = recorder != null ? new ReportDocument(pdfDoc, PageSize.A4, recorder) : new Document(pdfDoc, PageSize.A4);
+        options.getFontProvider().applyTo(document);
+        return document;
+    }
+
+    /**
+     * Records the metadata an appendable report needs, or returns {@code null} when reports are not appendable.
+     */
+    private ReportMetadata newMetadata(PdfDocument pdfDoc, String reportType, String title, Image header, long rows) {
+        if (!options.isAppendable()) {
+            return null;
+        }
+        ReportMetadata metadata = ReportMetadata.create(pdfDoc, reportType, title);
+        metadata.setHeader(header.getXObject().getPdfObject());
+        metadata.setRows(rows);
+        return metadata;
+    }
+
+    /**
+     * Writes a report of one large table under the header with {@code title}, as the warehouse and product reports
+     * are, whatever form their rows come in.
+     */
+    private <T> void generateListingReport(String reportType, String title, ReportColumns<T> columns, Iterable<T> rows,
+                                           OutputStream out) throws IOException {
+        ReportRecorder recorder = newRecorder(reportType);
+        try (PdfWriter writer = newWriter(recorder.countBytes(out))) {
+            PdfDocument pdfDoc = new PdfDocument(writer);
+            Document document = newDocument(pdfDoc, recorder);
+
+            Image header = addReportHeader(document, title);
+
+            int count = addLargeTable(document, columns, rows);
+            recorder.addRows(count);
+            newMetadata(pdfDoc, reportType, title, header, count);
+            document.close();
+        } catch (IOException | RuntimeException e) {
+            recorder.failed(e);
+            throw e;
+        }
+        recorder.completed();
+    }
+
+    private ReportRecorder newRecorder(String reportType) {
+        return new ReportRecorder(reportType, options.getMetricsListener());
+    }
+
+    /**
+     * Creates a writer that streams into the caller's {@code out} with the configured compression and version,
+     * and leaves it open when the document is closed.
+     */
+    private PdfWriter newWriter(OutputStream out) {
+        WriterProperties properties = new WriterProperties().setCompressionLevel(options.getCompressionLevel());
+        if (options.isFullCompression()) {
+            properties.setFullCompressionMode(true);
+        }
+        if (options.getPdfVersion() != null) {
+            properties.setPdfVersion(options.getPdfVersion());
+        }
+        PdfWriter writer = new PdfWriter(out, properties);
+        writer.setCloseStream(false);
+        return writer;
+    }
+
+    /**
+     * Adds a large table with one row per element of {@code rows}. The table is added to the document before
+     * its rows, which are laid out and flushed as they are added, and the number of rows is returned.
+     */
+    private <T> int addLargeTable(Document document, ReportColumns<T> columns, Iterable<T> rows) {
+        Table table = new Table(UnitValue.createPercentArray(columns.widths()), true)
+                .setWidth(UnitValue.createPercentValue(100))
+                .setMarginBottom(20);
+        styles.addHeaderRow(table, columns.headers());
+        document.add(table);
+
+        int count = 0;
+        for (T row : rows) {
+            columns.addRow(table, row);
+            flushIfDue(table, ++count);
+        }
+        table.complete();
+        return count;
+    }
+
+    private void flushIfDue(Table table, int rows) {
+        if (rows % LARGE_TABLE_FLUSH_ROWS == 0) {
+            table.flush();
+        }
+    }
+
+    private void addTaskToDocument(Tasks task, Document document, TaskSectionCache sections,
+                                   boolean includeUsers, boolean includeProducts, boolean includeWarehouses) {
         // Adding Task details in a table
-        Table table = new Table(UnitValue.createPercentArray(new float[]{2, 2, 3, 1, 1, 3, 3, 2}))
+        Table table = new Table(UnitValue.createPercentArray(TASK_COLUMNS.widths()))
                 .setWidth(UnitValue.createPercentValue(100))
                 .setMarginBottom(10)
                 .setTextAlignment(TextAlignment.LEFT);
 
         // Header cells
-        table.addHeaderCell(new Paragraph("Task ID").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        table.addHeaderCell(new Paragraph("Name").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        table.addHeaderCell(new Paragraph("Description").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        table.addHeaderCell(new Paragraph("State").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        table.addHeaderCell(new Paragraph("Priority").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        table.addHeaderCell(new Paragraph("Creation Date").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        table.addHeaderCell(new Paragraph("Start Date").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        table.addHeaderCell(new Paragraph("End Date").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
+        styles.addHeaderRow(table, TASK_COLUMNS.headers());
 
         // Data cells
-        table.addCell(new Paragraph(String.valueOf(task.getId())).setBorder(Border.NO_BORDER));
-        table.addCell(new Paragraph(task.getName()).setBorder(Border.NO_BORDER));
-        table.addCell(new Paragraph(task.getDescription()).setBorder(Border.NO_BORDER));
-        table.addCell(new Paragraph(String.valueOf(task.getState())).setBorder(Border.NO_BORDER));
-        table.addCell(new Paragraph(String.valueOf(task.getPriority())).setBorder(Border.NO_BORDER));
-        table.addCell(new Paragraph(task.getCreationDate().toString()).setBorder(Border.NO_BORDER));
-        table.addCell(new Paragraph(task.getStartDate().toString()).setBorder(Border.NO_BORDER));
-        table.addCell(new Paragraph(task.getEndDate().toString()).setBorder(Border.NO_BORDER));
+        TASK_COLUMNS.addRow(table, task);
 
         document.add(table);
 
@@ -324,116 +1129,131 @@ public class PdfGeneratorService {
         // Optional sections
         if (includeUsers) {
             document.add(ls);
-            addUsersSection(task, document);
+            addSection(document, sections, "Users:", task.getUsers(), () -> usersSection(task));
         }
 
         if (includeProducts) {
             document.add(ls);
-            addProductsSection(task, document);
+            addSection(document, sections, "Products:", task.getProducts(), () -> productsSection(task));
         }
 
         if (includeWarehouses) {
             document.add(ls);
-            addWarehousesSection(task, document);
+            addSection(document, sections, "Warehouses:", task.getWarehouses(), () -> warehousesSection(task));
         }
     }
 
-    private void addUsersSection(Tasks task, Document document) {
-        document.add(new Paragraph("Users:").setBold().setMarginTop(10).setMarginBottom(5));
-        Table userTable = new Table(UnitValue.createPercentArray(new float[]{3, 3, 3, 3, 3}))
-                .setWidth(UnitValue.createPercentValue(100))
-                .setMarginBottom(10);
-
-        userTable.addHeaderCell(new Paragraph("Username").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        userTable.addHeaderCell(new Paragraph("Name").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        userTable.addHeaderCell(new Paragraph("Lastname").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        userTable.addHeaderCell(new Paragraph("Email").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        userTable.addHeaderCell(new Paragraph("Phone Number").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-
-        for (User user : task.getUsers()) {
-            userTable.addCell(user.getUsername());
-            userTable.addCell(user.getName());
-            userTable.addCell(user.getLastname());
-            userTable.addCell(user.getEmail());
-            userTable.addCell(user.getPhoneNumber());
+    /**
+     * Adds a task's section to the document, as the shared XObject from {@code sections} when deduplication
+     * is on and the section is short enough, laid out in place otherwise.
+     */
+    private void addSection(Document document, TaskSectionCache sections, String title, Set<?> members, Supplier<Div> section) {
+        Image shared = sections != null ? sections.get(title, members, section) : null;
+        if (shared != null) {
+            document.add(shared);
+        } else {
+            document.add(section.get());
         }
+    }
 
-        document.add(userTable);
+    /**
+     * Adds a task's section to a compact table cell. The table's collapsed outer borders leave the cell a
+     * fraction of a point narrower than the content area, so a shared section is scaled to the cell's width.
+     */
+    private void addSection(Div container, TaskSectionCache sections, String title, Set<?> members, Supplier<Div> section) {
+        Image shared = sections != null ? sections.get(title, members, section) : null;
+        if (shared != null) {
+            container.add(shared.setAutoScaleWidth(true));
+        } else {
+            container.add(section.get());
+        }
     }
 
-    private void addProductsSection(Tasks task, Document document) {
-        document.add(new Paragraph("Products:").setBold().setMarginTop(10).setMarginBottom(5));
-        Table productTable = new Table(UnitValue.createPercentArray(new float[]{3, 3, 2, 2, 2, 2}))
-                .setWidth(UnitValue.createPercentValue(100))
-                .setMarginBottom(10);
+    private float contentHeight(Document document) {
+        return document.getPdfDocument().getDefaultPageSize().getHeight() - document.getTopMargin() - document.getBottomMargin();
+    }
 
-        productTable.addHeaderCell(new Paragraph("Name").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        productTable.addHeaderCell(new Paragraph("Code").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        productTable.addHeaderCell(new Paragraph("Width").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        productTable.addHeaderCell(new Paragraph("Height").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        productTable.addHeaderCell(new Paragraph("Length").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        productTable.addHeaderCell(new Paragraph("Weight").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
+    private Div usersSection(Tasks task) {
+        return new Div().add(styles.sectionTitle("Users:")).add(sectionTable(TASK_USER_COLUMNS, task.getUsers()));
+    }
 
-        for (Product product : task.getProducts()) {
-            productTable.addCell(product.getName());
-            productTable.addCell(product.getCode());
-            productTable.addCell(String.valueOf(product.getWidth()));
-            productTable.addCell(String.valueOf(product.getHeight()));
-            productTable.addCell(String.valueOf(product.getLength()));
-            productTable.addCell(String.valueOf(product.getWeight()));
-        }
+    private Div productsSection(Tasks task) {
+        return new Div().add(styles.sectionTitle("Products:")).add(sectionTable(TASK_PRODUCT_COLUMNS, task.getProducts()));
+    }
 
-        document.add(productTable);
+    private Div warehousesSection(Tasks task) {
+        return new Div().add(styles.sectionTitle("Warehouses:")).add(sectionTable(TASK_WAREHOUSE_COLUMNS, task.getWarehouses()));
     }
 
-    private void addWarehousesSection(Tasks task, Document document) {
-        document.add(new Paragraph("Warehouses:").setBold().setMarginTop(10).setMarginBottom(5));
-        Table warehouseTable = new Table(UnitValue.createPercentArray(new float[]{3, 2, 2, 2, 2, 2, 2}))
+    private <T> Table sectionTable(ReportColumns<T> columns, Iterable<T> rows) {
+        Table table = new Table(UnitValue.createPercentArray(columns.widths()))
                 .setWidth(UnitValue.createPercentValue(100))
                 .setMarginBottom(10);
 
-        warehouseTable.addHeaderCell(new Paragraph("Building").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        warehouseTable.addHeaderCell(new Paragraph("Zone").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        warehouseTable.addHeaderCell(new Paragraph("SpaceId").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        warehouseTable.addHeaderCell(new Paragraph("SpaceHeight").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        warehouseTable.addHeaderCell(new Paragraph("SpaceWidth").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        warehouseTable.addHeaderCell(new Paragraph("SpaceLength").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        warehouseTable.addHeaderCell(new Paragraph("ProductId").setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
+        styles.addHeaderRow(table, columns.headers());
 
-        for (Warehouse warehouse : task.getWarehouses()) {
-            warehouseTable.addCell(warehouse.getBuilding());
-            warehouseTable.addCell(warehouse.getZone());
-            warehouseTable.addCell(String.valueOf(warehouse.getSpaceId()));
-            warehouseTable.addCell(String.valueOf(warehouse.getSpaceHeight()));
-            warehouseTable.addCell(String.valueOf(warehouse.getSpaceWidth()));
-            warehouseTable.addCell(String.valueOf(warehouse.getSpaceLength()));
-            warehouseTable.addCell(String.valueOf(warehouse.getProductId()));
+        for (T row : rows) {
+            columns.addRow(table, row);
         }
-
-        document.add(warehouseTable);
+        return table;
     }
 
+    /**
+     * Returns the pie chart for {@code taskStateCounts} from the chart cache, rendering it on a miss. A chart that
+     * was {@code rendered} ahead is taken from the cache without counting the lookup, since rendering it ahead
+     * already counted as its hit or miss.
+     */
+    private Image createPieChart(Map<Integer, Long> taskStateCounts, PdfDocument pdfDoc, boolean rendered) throws IOException {
+        if (options.getChartMode() == ChartMode.VECTOR) {
+            byte[] svg = rendered ? vectorPieChartCache.peek(taskStateCounts) : null;
+            if (svg == null) {
+                svg = vectorPieChartCache.get(taskStateCounts, this::renderVectorPieChart);
+            }
+            // Form XObjects belong to one document, so only the SVG is shared between reports
+            PdfFormXObject chartXObject = SvgConverter.convertToXObject(new ByteArrayInputStream(svg), pdfDoc);
+            return new Image(chartXObject);
+        }
+        ImageData image = rendered ? pieChartCache.peek(taskStateCounts) : null;
+        return new Image(image != null ? image : pieChartCache.get(taskStateCounts, this::renderPieChart));
+    }
 
-    private Image createPieChart(List<Tasks> tasks) throws IOException {
+    private JFreeChart buildPieChart(Map<Integer, Long> taskStateCounts) {
         // Create a dataset
-        Map<Integer, Long> taskStateCounts = tasks.stream()
-                .collect(Collectors.groupingBy(Tasks::getState, Collectors.counting()));
-
         DefaultPieDataset dataset = new DefaultPieDataset();
         for (Map.Entry<Integer, Long> entry : taskStateCounts.entrySet()) {
             dataset.setValue("State " + entry.getKey(), entry.getValue());
         }
 
         // Create the chart
-        JFreeChart chart = ChartFactory.createPieChart("Task State Distribution", dataset, true, true, false);
+        return ChartFactory.createPieChart("Task State Distribution", dataset, true, true, false);
+    }
+
+    private byte[] renderVectorPieChart(Map<Integer, Long> taskStateCounts) {
+        JFreeChart chart = buildPieChart(taskStateCounts);
+
+        // Draw the chart as SVG vector graphics
+        SVGGraphics2D svgGraphics = new SVGGraphics2D(PIE_CHART_WIDTH, PIE_CHART_HEIGHT);
+        chart.draw(svgGraphics, new Rectangle(0, 0, PIE_CHART_WIDTH, PIE_CHART_HEIGHT));
+        return svgGraphics.getSVGDocument().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private ImageData renderPieChart(Map<Integer, Long> taskStateCounts) throws IOException {
+        JFreeChart chart = buildPieChart(taskStateCounts);
 
         // Convert the chart to an image
-        BufferedImage bufferedImage = chart.createBufferedImage(500, 400);
+        BufferedImage bufferedImage = chart.createBufferedImage(PIE_CHART_WIDTH, PIE_CHART_HEIGHT);
         ByteArrayOutputStream chartOut = new ByteArrayOutputStream();
         ChartUtils.writeBufferedImageAsPNG(chartOut, bufferedImage);
         byte[] chartBytes = chartOut.toByteArray();
 
-        ImageData imageData = ImageDataFactory.create(chartBytes);
-        return new Image(imageData);
+        return ImageDataFactory.create(chartBytes);
+    }
+
+    @FunctionalInterface
+    private interface ReportAppender {
+        /**
+         * Adds the new rows to the document and returns how many were added.
+         */
+        long append(Document document, ReportMetadata metadata) throws IOException;
     }
 }
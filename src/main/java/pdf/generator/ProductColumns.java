@@ -0,0 +1,145 @@
+package pdf.generator;
+
+import pdf.generator.model.Product;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Product report rows stored by column, for inputs too large to hold as a list of {@link Product} objects.
+ * <p>
+ * Names and codes are kept in {@code String} arrays and the four dimensions in {@code double} arrays, so a row
+ * costs its two strings and 40 bytes of arrays instead of a whole {@code Product} besides. Like
+ * {@link WarehouseColumns}, the batch is filled with {@code add} by one thread and may then be rendered by many.
+ */
+public final class ProductColumns {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private String[] name;
+    private String[] code;
+    private double[] width;
+    private double[] height;
+    private double[] length;
+    private double[] weight;
+    private int size;
+
+    public ProductColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a batch with room for {@code capacity} rows before its arrays grow.
+     */
+    public ProductColumns(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        name = new String[capacity];
+        code = new String[capacity];
+        width = new double[capacity];
+        height = new double[capacity];
+        length = new double[capacity];
+        weight = new double[capacity];
+    }
+
+    /**
+     * Returns a batch with the fields of {@code products} shown in the product report.
+     */
+    public static ProductColumns from(Iterable<Product> products) {
+        ProductColumns columns = new ProductColumns();
+        for (Product product : products) {
+            columns.add(product);
+        }
+        return columns;
+    }
+
+    public ProductColumns add(Product product) {
+        return add(product.getName(), product.getCode(), product.getWidth(), product.getHeight(), product.getLength(),
+                product.getWeight());
+    }
+
+    public ProductColumns add(String name, String code, double width, double height, double length, double weight) {
+        if (size == this.name.length) {
+            grow();
+        }
+        this.name[size] = name;
+        this.code[size] = code;
+        this.width[size] = width;
+        this.height[size] = height;
+        this.length[size] = length;
+        this.weight[size] = weight;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the rows in order through a single cursor, like {@link WarehouseColumns#rows()}.
+     */
+    Iterable<Row> rows() {
+        return () -> new Iterator<Row>() {
+            private final int end = size;
+            private final Row row = new Row();
+
+            @Override
+            public boolean hasNext() {
+                return row.index + 1 < end;
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                row.index++;
+                return row;
+            }
+        };
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, name.length * 2);
+        name = Arrays.copyOf(name, capacity);
+        code = Arrays.copyOf(code, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        length = Arrays.copyOf(length, capacity);
+        weight = Arrays.copyOf(weight, capacity);
+    }
+
+    /**
+     * The row a cursor of {@link #rows()} is on, read by the report columns.
+     */
+    final class Row {
+        private int index = -1;
+
+        String getName() {
+            return name[index];
+        }
+
+        String getCode() {
+            return code[index];
+        }
+
+        double getWidth() {
+            return width[index];
+        }
+
+        double getHeight() {
+            return height[index];
+        }
+
+        double getLength() {
+            return length[index];
+        }
+
+        double getWeight() {
+            return weight[index];
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package pdf.generator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * In-memory report buffer that hands its backing array to the returned input stream
+ * instead of copying it, so a finished report exists only once on the heap.
+ */
+class ReportByteArrayOutputStream extends ByteArrayOutputStream {
+
+    ReportByteArrayOutputStream() {
+        super(32 * 1024);
+    }
+
+    ByteArrayInputStream toInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+}
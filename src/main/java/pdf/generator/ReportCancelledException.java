@@ -0,0 +1,19 @@
+package pdf.generator;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Thrown by a {@link ReportPageListener} to stop the report it follows, and passed on by the report method.
+ */
+public class ReportCancelledException extends CancellationException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ReportCancelledException() {
+        super("Report cancelled");
+    }
+
+    public ReportCancelledException(String message) {
+        super(message);
+    }
+}
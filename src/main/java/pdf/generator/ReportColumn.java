@@ -0,0 +1,88 @@
+package pdf.generator;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * One column of a report table: its header, its relative width and how the text of its cell is taken from a row.
+ * <p>
+ * Numeric columns read primitives where the model has them and convert them through a shared cache of number text,
+ * so a cell costs neither a boxed value nor a fresh conversion of a value seen before. The text of a numeric cell
+ * is the same as {@link String#valueOf} of the field, {@code "null"} included.
+ *
+ * @param <T> the row type
+ * @see ReportColumns
+ */
+public final class ReportColumn<T> {
+
+    private enum Kind { TEXT, INT, DOUBLE, VALUE }
+
+    private final String header;
+    private final float width;
+    private final Kind kind;
+    private final Function<? super T, ?> value;
+    private final ToIntFunction<? super T> intValue;
+    private final ToDoubleFunction<? super T> doubleValue;
+
+    private ReportColumn(String header, float width, Kind kind, Function<? super T, ?> value,
+                         ToIntFunction<? super T> intValue, ToDoubleFunction<? super T> doubleValue) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("width must be positive: " + width);
+        }
+        this.header = header;
+        this.width = width;
+        this.kind = kind;
+        this.value = value;
+        this.intValue = intValue;
+        this.doubleValue = doubleValue;
+    }
+
+    /**
+     * Returns a column showing the string {@code text} returns for a row.
+     */
+    public static <T> ReportColumn<T> text(String header, float width, Function<? super T, String> text) {
+        return new ReportColumn<>(header, width, Kind.TEXT, text, null, null);
+    }
+
+    public static <T> ReportColumn<T> ofInt(String header, float width, ToIntFunction<? super T> value) {
+        return new ReportColumn<>(header, width, Kind.INT, null, value, null);
+    }
+
+    public static <T> ReportColumn<T> ofDouble(String header, float width, ToDoubleFunction<? super T> value) {
+        return new ReportColumn<>(header, width, Kind.DOUBLE, null, null, value);
+    }
+
+    /**
+     * Returns a column showing {@link String#valueOf} of a value that may be {@code null}, such as a boxed id.
+     * {@code Integer} and {@code Long} values share the cached number text of the primitive columns.
+     */
+    public static <T> ReportColumn<T> of(String header, float width, Function<? super T, ?> value) {
+        return new ReportColumn<>(header, width, Kind.VALUE, value, null, null);
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    String format(T row) {
+        switch (kind) {
+            case TEXT:
+                return (String) value.apply(row);
+            case INT:
+                return NumberText.of(intValue.applyAsInt(row));
+            case DOUBLE:
+                return NumberText.of(doubleValue.applyAsDouble(row));
+            default:
+                Object object = value.apply(row);
+                if (object instanceof Integer || object instanceof Long) {
+                    return NumberText.of(((Number) object).longValue());
+                }
+                return String.valueOf(object);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package pdf.generator;
+
+import com.itextpdf.layout.element.Table;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The columns of a report table, in order. The headers and relative widths of the table come from its columns,
+ * and {@link #addRow(Table, Object)} fills one row of cells from a model object, so every table the service
+ * renders, whatever its row type, goes through the same code.
+ *
+ * @param <T> the row type
+ */
+public final class ReportColumns<T> {
+
+    private final ReportColumn<T>[] columns;
+    private final String[] headers;
+    private final float[] widths;
+
+    private ReportColumns(ReportColumn<T>[] columns, float[] widths) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("A table needs at least one column");
+        }
+        this.columns = columns;
+        this.headers = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            headers[i] = columns[i].getHeader();
+        }
+        this.widths = widths;
+    }
+
+    @SafeVarargs
+    public static <T> ReportColumns<T> of(ReportColumn<T>... columns) {
+        // Copied element by element into an array created here, so the varargs array itself never escapes
+        @SuppressWarnings("unchecked")
+        ReportColumn<T>[] copy = (ReportColumn<T>[]) new ReportColumn<?>[columns.length];
+        float[] widths = new float[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            copy[i] = columns[i];
+            widths[i] = columns[i].getWidth();
+        }
+        return new ReportColumns<>(copy, widths);
+    }
+
+    /**
+     * Returns the same columns laid out with other relative widths, one per column.
+     */
+    public ReportColumns<T> withWidths(float... widths) {
+        if (widths.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " widths, got " + widths.length);
+        }
+        return new ReportColumns<>(columns, widths.clone());
+    }
+
+    public List<ReportColumn<T>> getColumns() {
+        return Arrays.asList(columns.clone());
+    }
+
+    public int size() {
+        return columns.length;
+    }
+
+    String[] headers() {
+        return headers;
+    }
+
+    float[] widths() {
+        return widths;
+    }
+
+    /**
+     * Adds one cell per column with the text of {@code row}.
+     */
+    void addRow(Table table, T row) {
+        for (ReportColumn<T> column : columns) {
+            table.addCell(column.format(row));
+        }
+    }
+}
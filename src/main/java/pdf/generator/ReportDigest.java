@@ -0,0 +1,236 @@
+package pdf.generator;
+
+import pdf.generator.model.Product;
+import pdf.generator.model.Tasks;
+import pdf.generator.model.User;
+import pdf.generator.model.Warehouse;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Builds the SHA-256 key of a report from everything that decides its content: the report type and flags, the
+ * date printed in its header, the {@link ReportOptions} that change the output and every field of every input row.
+ * <p>
+ * Values are written into a buffer in a fixed binary form, strings with their length and {@code null} with a
+ * marker of its own, so different inputs cannot produce the same byte sequence. The buffer is passed to the
+ * digest only when full, as hashing field by field costs more than the hash itself.
+ */
+final class ReportDigest {
+
+    private static final byte NULL = 0;
+    private static final byte PRESENT = 1;
+    private static final byte ROW = 2;
+    private static final byte END = 3;
+
+    private final MessageDigest digest;
+    private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+    ReportDigest(String reportType, LocalDate date, ReportOptions options) {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+        putString(reportType);
+        putString(date.toString());
+        putOptions(options);
+    }
+
+    ReportDigest putBoolean(boolean value) {
+        ensure(1);
+        buffer.put(value ? PRESENT : NULL);
+        return this;
+    }
+
+    ReportDigest putUsers(Iterable<User> users) {
+        for (User user : users) {
+            row();
+            putUser(user);
+        }
+        return end();
+    }
+
+    ReportDigest putWarehouses(Iterable<Warehouse> warehouses) {
+        for (Warehouse warehouse : warehouses) {
+            row();
+            putWarehouse(warehouse);
+        }
+        return end();
+    }
+
+    ReportDigest putProducts(Iterable<Product> products) {
+        for (Product product : products) {
+            row();
+            putProduct(product);
+        }
+        return end();
+    }
+
+    /**
+     * Adds the tasks and, for the sections that are included, their members.
+     */
+    ReportDigest putTasks(Iterable<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses) {
+        for (Tasks task : tasks) {
+            row();
+            putLong(task.getId());
+            putString(task.getName());
+            putString(task.getDescription());
+            putInteger(task.getState());
+            putInteger(task.getPriority());
+            putDateTime(task.getCreationDate());
+            putDateTime(task.getStartDate());
+            putDateTime(task.getEndDate());
+            putBoolean(task.getActive());
+            if (includeUsers) {
+                putUsers(task.getUsers());
+            }
+            if (includeProducts) {
+                putProducts(task.getProducts());
+            }
+            if (includeWarehouses) {
+                putWarehouses(task.getWarehouses());
+            }
+        }
+        return end();
+    }
+
+    /**
+     * Returns the key as 64 lowercase hex digits, usable as a file name.
+     */
+    String toHex() {
+        flush();
+        byte[] hash = digest.digest();
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Adds the options that change the bytes of a report; the chart executor and metrics listener do not.
+     */
+    private void putOptions(ReportOptions options) {
+        putString(options.getChartMode().name());
+        putString(options.getFontProvider().getFontName());
+        putBoolean(options.isDeduplicateTaskSections());
+        putString(options.getTaskLayout().name());
+        putBoolean(options.isIncludeTaskSummary());
+        putInt(options.getCompressionLevel());
+        putBoolean(options.isFullCompression());
+        putString(options.getPdfVersion() != null ? options.getPdfVersion().toString() : null);
+        putBoolean(options.isAppendable());
+    }
+
+    private void putUser(User user) {
+        putLong(user.getId());
+        putString(user.getUsername());
+        putString(user.getName());
+        putString(user.getLastname());
+        putString(user.getPesel());
+        putString(user.getEmail());
+        putString(user.getPhoneNumber());
+        putBoolean(user.getActive());
+    }
+
+    private void putWarehouse(Warehouse warehouse) {
+        putLong(warehouse.getId());
+        putString(warehouse.getBuilding());
+        putString(warehouse.getZone());
+        putLong(warehouse.getSpaceId());
+        putInt(warehouse.getSpaceHeight());
+        putInt(warehouse.getSpaceWidth());
+        putInt(warehouse.getSpaceLength());
+        putLong(warehouse.getProductId());
+        putString(warehouse.getProductName());
+        putString(warehouse.getProductCode());
+    }
+
+    private void putProduct(Product product) {
+        putLong(product.getId());
+        putString(product.getName());
+        putString(product.getCode());
+        putDouble(product.getWidth());
+        putDouble(product.getHeight());
+        putDouble(product.getLength());
+        putDouble(product.getWeight());
+        putBoolean(product.getActive());
+    }
+
+    private void row() {
+        ensure(1);
+        buffer.put(ROW);
+    }
+
+    private ReportDigest end() {
+        ensure(1);
+        buffer.put(END);
+        return this;
+    }
+
+    private void putInt(int value) {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    private void putDouble(double value) {
+        ensure(8);
+        buffer.putLong(Double.doubleToLongBits(value));
+    }
+
+    private void putLong(Long value) {
+        if (present(value)) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+    }
+
+    private void putInteger(Integer value) {
+        if (present(value)) {
+            putInt(value);
+        }
+    }
+
+    private void putBoolean(Boolean value) {
+        if (present(value)) {
+            putBoolean(value.booleanValue());
+        }
+    }
+
+    private void putDateTime(LocalDateTime value) {
+        putString(value != null ? value.toString() : null);
+    }
+
+    private void putString(String value) {
+        if (present(value)) {
+            putInt(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                ensure(2);
+                buffer.putChar(value.charAt(i));
+            }
+        }
+    }
+
+    private boolean present(Object value) {
+        ensure(1);
+        buffer.put(value != null ? PRESENT : NULL);
+        return value != null;
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,57 @@
+package pdf.generator;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.IBlockElement;
+import com.itextpdf.layout.element.Image;
+
+/**
+ * A layout document that books the time spent laying out elements and closing the document to its report's
+ * {@link ReportRecorder}. Large tables lay out their flushed rows through {@link #add(IBlockElement)}, so their
+ * layout is booked too.
+ */
+class ReportDocument extends Document {
+
+    private final ReportRecorder recorder;
+
+    ReportDocument(PdfDocument pdfDoc, PageSize pageSize, ReportRecorder recorder) {
+        super(pdfDoc, pageSize);
+        this.recorder = recorder;
+    }
+
+    ReportRecorder getRecorder() {
+        return recorder;
+    }
+
+    @Override
+    public Document add(IBlockElement element) {
+        long start = System.nanoTime();
+        try {
+            return super.add(element);
+        } finally {
+            recorder.addStageNanos(ReportStage.LAYOUT, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Document add(Image image) {
+        long start = System.nanoTime();
+        try {
+            return super.add(image);
+        } finally {
+            recorder.addStageNanos(ReportStage.LAYOUT, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void close() {
+        recorder.setPages(getPdfDocument().getNumberOfPages());
+        long start = System.nanoTime();
+        try {
+            super.close();
+        } finally {
+            recorder.addStageNanos(ReportStage.WRITE, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package pdf.generator;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.layout.Document;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Supplies the font every report is set in. The font program is parsed once and shared by all documents;
+ * each document only gets a lightweight {@link PdfFont} wrapper, which for embedded fonts subsets the glyphs
+ * that document actually uses.
+ * <p>
+ * Instances are thread-safe. The font program is loaded on first use.
+ */
+public class ReportFontProvider {
+
+    private final String standardFontName;
+    private final Path fontFile;
+    private volatile FontProgram fontProgram;
+
+    /**
+     * Creates a provider for the built-in Helvetica font, which is not embedded.
+     */
+    public ReportFontProvider() {
+        this(StandardFonts.HELVETICA);
+    }
+
+    /**
+     * Creates a provider for one of the fourteen standard PDF fonts named in {@link StandardFonts}.
+     */
+    public ReportFontProvider(String standardFontName) {
+        this.standardFontName = standardFontName;
+        this.fontFile = null;
+    }
+
+    /**
+     * Creates a provider for a TrueType or OpenType font file, embedded as a per-document subset.
+     */
+    public ReportFontProvider(Path fontFile) {
+        this.standardFontName = null;
+        this.fontFile = fontFile;
+    }
+
+    /**
+     * Returns the name of the standard font or the path of the font file, which identifies the font the provider
+     * supplies.
+     */
+    String getFontName() {
+        return fontFile == null ? standardFontName : fontFile.toAbsolutePath().toString();
+    }
+
+    /**
+     * Creates the font for {@code pdfDoc} from the shared font program.
+     */
+    public PdfFont createFont(PdfDocument pdfDoc) throws IOException {
+        FontProgram program = getFontProgram();
+        if (fontFile == null) {
+            return PdfFontFactory.createFont(program, PdfEncodings.WINANSI, PdfFontFactory.EmbeddingStrategy.PREFER_NOT_EMBEDDED);
+        }
+        PdfFont font = PdfFontFactory.createFont(program, PdfEncodings.IDENTITY_H, PdfFontFactory.EmbeddingStrategy.FORCE_EMBEDDED);
+        font.setSubset(true);
+        return font;
+    }
+
+    /**
+     * Sets the provided font as the default font of {@code document}.
+     */
+    public void applyTo(Document document) throws IOException {
+        document.setFont(createFont(document.getPdfDocument()));
+    }
+
+    private FontProgram getFontProgram() throws IOException {
+        FontProgram program = fontProgram;
+        if (program == null) {
+            synchronized (this) {
+                program = fontProgram;
+                if (program == null) {
+                    program = fontFile == null
+                            ? FontProgramFactory.createFont(standardFontName)
+                            : FontProgramFactory.createFont(Files.readAllBytes(fontFile));
+                    fontProgram = program;
+                }
+            }
+        }
+        return program;
+    }
+}
@@ -0,0 +1,122 @@
+package pdf.generator;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.LineSeparator;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.layout.LayoutArea;
+import com.itextpdf.layout.layout.LayoutContext;
+import com.itextpdf.layout.properties.HorizontalAlignment;
+import com.itextpdf.layout.renderer.IRenderer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lays out the report preamble (title, date and separator) once per report title and day, and stamps it into
+ * every report as a Form XObject instead of laying the same three elements out again for each document.
+ * <p>
+ * A Form XObject belongs to a single document, so the header is kept as an open one-page template document whose
+ * page is exactly the size of the header, and that page is copied into each report. Copying reads the template,
+ * which is not thread-safe, so copies from one template are serialized; they take microseconds.
+ */
+class ReportHeaderCache {
+
+    static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMMM, yyyy", Locale.ENGLISH);
+
+    /**
+     * Height of the page the header is measured on. Far taller than any header, so measuring never runs out of room.
+     */
+    private static final float MEASURE_HEIGHT = 1000;
+
+    private final ReportFontProvider fontProvider;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    ReportHeaderCache(ReportFontProvider fontProvider) {
+        this.fontProvider = fontProvider;
+    }
+
+    /**
+     * Returns the header for {@code title} as an image backed by a Form XObject of the document's PDF, as wide as
+     * the document's content area.
+     */
+    Image header(Document document, String title) throws IOException {
+        PdfDocument pdfDoc = document.getPdfDocument();
+        float width = pdfDoc.getDefaultPageSize().getWidth() - document.getLeftMargin() - document.getRightMargin();
+        LocalDate date = LocalDate.now();
+
+        Template template = templates.get(title);
+        if (template == null || !template.date.equals(date) || template.width != width) {
+            // The template being replaced reads from a byte array, so it holds no resources and is simply dropped
+            template = new Template(date, width, renderTemplate(title, date, width));
+            templates.put(title, template);
+        }
+        return new Image(template.copyTo(pdfDoc));
+    }
+
+    private byte[] renderTemplate(String title, LocalDate date, float width) throws IOException {
+        Div header = new Div()
+                .add(new Paragraph(title)
+                        .setFontSize(20)
+                        .setBold()
+                        .setMarginBottom(10))
+                .add(new Paragraph("Date: " + date.format(DATE_FORMAT))
+                        .setFontSize(12)
+                        .setMarginBottom(10))
+                .add(newSeparator());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PdfDocument templateDoc = new PdfDocument(new PdfWriter(out))) {
+            header.setFont(fontProvider.createFont(templateDoc));
+
+            // Measure the header first, then lay it out on a page of exactly that size
+            Document measuring = new Document(templateDoc, new PageSize(width, MEASURE_HEIGHT), false);
+            IRenderer renderer = header.createRendererSubTree().setParent(measuring.getRenderer());
+            float height = renderer.layout(new LayoutContext(new LayoutArea(1, new Rectangle(width, MEASURE_HEIGHT))))
+                    .getOccupiedArea().getBBox().getHeight();
+
+            Document document = new Document(templateDoc, new PageSize(width, height));
+            document.setMargins(0, 0, 0, 0);
+            document.add(header);
+            document.close();
+        }
+        return out.toByteArray();
+    }
+
+    private static LineSeparator newSeparator() {
+        LineSeparator ls = new LineSeparator(new SolidLine());
+        ls.setHorizontalAlignment(HorizontalAlignment.CENTER);
+        ls.setMarginBottom(20);
+        return ls;
+    }
+
+    private static final class Template {
+        private final LocalDate date;
+        private final float width;
+        private final PdfDocument document;
+
+        private Template(LocalDate date, float width, byte[] pdf) throws IOException {
+            this.date = date;
+            this.width = width;
+            this.document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+        }
+
+        synchronized PdfFormXObject copyTo(PdfDocument pdfDoc) throws IOException {
+            return document.getFirstPage().copyAsFormXObject(pdfDoc);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package pdf.generator;
+
+import pdf.generator.model.Product;
+import pdf.generator.model.Tasks;
+import pdf.generator.model.User;
+import pdf.generator.model.Warehouse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A single report rendered by {@link PdfBatchGenerator}. A job writes its PDF into the given stream
+ * and must not close it.
+ */
+@FunctionalInterface
+public interface ReportJob {
+
+    void render(PdfGeneratorService service, OutputStream out) throws IOException;
+
+    static ReportJob userReport(Iterable<User> users, boolean includeTasks) {
+        return (service, out) -> service.generateUserReport(users, includeTasks, out);
+    }
+
+    static ReportJob warehouseReport(Iterable<Warehouse> warehouses) {
+        return (service, out) -> service.generateWarehouseReport(warehouses, out);
+    }
+
+    static ReportJob warehouseReport(WarehouseColumns warehouses) {
+        return (service, out) -> service.generateWarehouseReport(warehouses, out);
+    }
+
+    static ReportJob productReport(Iterable<Product> products) {
+        return (service, out) -> service.generateProductReport(products, out);
+    }
+
+    static ReportJob productReport(ProductColumns products) {
+        return (service, out) -> service.generateProductReport(products, out);
+    }
+
+    static ReportJob taskReport(Iterable<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart) {
+        return (service, out) -> service.generateTaskReport(tasks, includeUsers, includeProducts, includeWarehouses, includePieChart, out);
+    }
+}
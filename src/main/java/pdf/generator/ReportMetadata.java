@@ -0,0 +1,140 @@
+package pdf.generator;
+
+import com.itextpdf.kernel.pdf.PdfBoolean;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfString;
+
+/**
+ * What an appendable report records about itself in its catalog, so that rows can later be added with an
+ * incremental update instead of rendering the report again: its type and title, the header XObject whose date is
+ * refreshed, the number of rows, the flags of a task report, the first page of its trailing sections and the
+ * statistics those sections show.
+ */
+class ReportMetadata {
+
+    private static final PdfName KEY = new PdfName("PdfGeneratorReport");
+    private static final PdfName TYPE = new PdfName("ReportType");
+    private static final PdfName TITLE = new PdfName("Title");
+    private static final PdfName HEADER = new PdfName("Header");
+    private static final PdfName ROWS = new PdfName("Rows");
+    private static final PdfName INCLUDE_USERS = new PdfName("IncludeUsers");
+    private static final PdfName INCLUDE_PRODUCTS = new PdfName("IncludeProducts");
+    private static final PdfName INCLUDE_WAREHOUSES = new PdfName("IncludeWarehouses");
+    private static final PdfName INCLUDE_PIE_CHART = new PdfName("IncludePieChart");
+    private static final PdfName TRAILING_PAGE = new PdfName("TrailingPage");
+    private static final PdfName STATISTICS = new PdfName("Statistics");
+
+    private final PdfDictionary dictionary;
+
+    private ReportMetadata(PdfDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Creates the metadata of a new report of {@code pdfDoc} and puts it in the catalog.
+     */
+    static ReportMetadata create(PdfDocument pdfDoc, String reportType, String title) {
+        PdfDictionary dictionary = new PdfDictionary();
+        dictionary.put(TYPE, new PdfString(reportType));
+        dictionary.put(TITLE, new PdfString(title));
+        pdfDoc.getCatalog().put(KEY, dictionary.makeIndirect(pdfDoc));
+        return new ReportMetadata(dictionary);
+    }
+
+    /**
+     * Returns the metadata of a report of {@code reportType} opened for appending.
+     *
+     * @throws IllegalArgumentException when the document is not an appendable report of that type
+     */
+    static ReportMetadata read(PdfDocument pdfDoc, String reportType) {
+        PdfDictionary dictionary = pdfDoc.getCatalog().getPdfObject().getAsDictionary(KEY);
+        if (dictionary == null) {
+            throw new IllegalArgumentException("Not an appendable report; render it with ReportOptions.setAppendable(true)");
+        }
+        PdfString type = dictionary.getAsString(TYPE);
+        if (type == null || !reportType.equals(type.toUnicodeString())) {
+            throw new IllegalArgumentException("Not a " + reportType + " report: " + (type == null ? null : type.toUnicodeString()));
+        }
+        return new ReportMetadata(dictionary);
+    }
+
+    String getTitle() {
+        return dictionary.getAsString(TITLE).toUnicodeString();
+    }
+
+    PdfStream getHeader() {
+        return dictionary.getAsStream(HEADER);
+    }
+
+    void setHeader(PdfStream header) {
+        put(HEADER, header);
+    }
+
+    long getRows() {
+        PdfNumber rows = dictionary.getAsNumber(ROWS);
+        return rows == null ? 0 : rows.longValue();
+    }
+
+    void setRows(long rows) {
+        put(ROWS, new PdfNumber(rows));
+    }
+
+    boolean isIncludeUsers() {
+        return flag(INCLUDE_USERS);
+    }
+
+    boolean isIncludeProducts() {
+        return flag(INCLUDE_PRODUCTS);
+    }
+
+    boolean isIncludeWarehouses() {
+        return flag(INCLUDE_WAREHOUSES);
+    }
+
+    boolean isIncludePieChart() {
+        return flag(INCLUDE_PIE_CHART);
+    }
+
+    void setTaskFlags(boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart) {
+        put(INCLUDE_USERS, PdfBoolean.valueOf(includeUsers));
+        put(INCLUDE_PRODUCTS, PdfBoolean.valueOf(includeProducts));
+        put(INCLUDE_WAREHOUSES, PdfBoolean.valueOf(includeWarehouses));
+        put(INCLUDE_PIE_CHART, PdfBoolean.valueOf(includePieChart));
+    }
+
+    /**
+     * Returns the 1-based number of the first page of the trailing sections, or 0 when the report has none.
+     */
+    int getTrailingPage() {
+        PdfNumber page = dictionary.getAsNumber(TRAILING_PAGE);
+        return page == null ? 0 : page.intValue();
+    }
+
+    void setTrailingPage(int page) {
+        put(TRAILING_PAGE, new PdfNumber(page));
+    }
+
+    TaskStatistics getStatistics() {
+        PdfString statistics = dictionary.getAsString(STATISTICS);
+        return statistics == null ? new TaskStatistics() : TaskStatistics.decode(statistics.toUnicodeString());
+    }
+
+    void setStatistics(TaskStatistics statistics) {
+        put(STATISTICS, new PdfString(statistics.encode()));
+    }
+
+    private boolean flag(PdfName key) {
+        PdfBoolean value = dictionary.getAsBoolean(key);
+        return value != null && value.getValue();
+    }
+
+    private void put(PdfName key, PdfObject value) {
+        dictionary.put(key, value);
+        dictionary.setModified();
+    }
+}
@@ -0,0 +1,78 @@
+package pdf.generator;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Measurements of one generated report, passed to a {@link ReportMetricsListener}.
+ */
+public final class ReportMetrics {
+
+    private final String reportType;
+    private final long totalNanos;
+    private final Map<ReportStage, Long> stageNanos;
+    private final long rows;
+    private final int pages;
+    private final long outputBytes;
+    private final long allocatedBytes;
+
+    ReportMetrics(String reportType, long totalNanos, Map<ReportStage, Long> stageNanos, long rows, int pages,
+                  long outputBytes, long allocatedBytes) {
+        this.reportType = reportType;
+        this.totalNanos = totalNanos;
+        this.stageNanos = new EnumMap<>(stageNanos);
+        this.rows = rows;
+        this.pages = pages;
+        this.outputBytes = outputBytes;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Returns the kind of report: {@code user}, {@code warehouse}, {@code product} or {@code task}.
+     */
+    public String getReportType() {
+        return reportType;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getStageNanos(ReportStage stage) {
+        Long nanos = stageNanos.get(stage);
+        return nanos != null ? nanos : 0;
+    }
+
+    /**
+     * Returns the number of input rows rendered: users, warehouses, products or tasks.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of pages, or 0 when the report failed before it was closed.
+     */
+    public int getPages() {
+        return pages;
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    /**
+     * Returns the bytes allocated on the thread that generated the report, plus those of its chunk threads for a
+     * parallel task report, or -1 when the JVM does not measure thread allocation.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportMetrics{" + reportType + ", totalNanos=" + totalNanos + ", stageNanos=" + stageNanos
+                + ", rows=" + rows + ", pages=" + pages + ", outputBytes=" + outputBytes
+                + ", allocatedBytes=" + allocatedBytes + '}';
+    }
+}
@@ -0,0 +1,23 @@
+package pdf.generator;
+
+/**
+ * Receives the {@link ReportMetrics} of every report a {@link PdfGeneratorService} generates. Listeners are called
+ * on the thread that generated the report, so they should be quick and thread-safe.
+ */
+public interface ReportMetricsListener {
+
+    /**
+     * A listener that ignores all metrics.
+     */
+    ReportMetricsListener NONE = metrics -> {
+    };
+
+    void reportCompleted(ReportMetrics metrics);
+
+    /**
+     * Called instead of {@link #reportCompleted} when generating the report failed, with the metrics gathered
+     * until then.
+     */
+    default void reportFailed(ReportMetrics metrics, Throwable error) {
+    }
+}
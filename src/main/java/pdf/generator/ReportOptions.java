@@ -0,0 +1,189 @@
+package pdf.generator;
+
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.PdfVersion;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Settings that control how {@link PdfGeneratorService} renders its reports.
+ * <p>
+ * The service reads the options on every report, so they should be fully configured before the service
+ * is shared between threads.
+ */
+public class ReportOptions {
+
+    private ChartMode chartMode = ChartMode.RASTER;
+    private ReportFontProvider fontProvider = new ReportFontProvider();
+    private boolean deduplicateTaskSections;
+    private TaskLayout taskLayout = TaskLayout.DETAILED;
+    private boolean includeTaskSummary;
+    private Executor chartExecutor;
+    private ReportMetricsListener metricsListener = ReportMetricsListener.NONE;
+    private int compressionLevel = CompressionConstants.DEFAULT_COMPRESSION;
+    private boolean fullCompression;
+    private PdfVersion pdfVersion;
+    private boolean appendable;
+
+    /**
+     * Options tuned for rendering speed: content streams are compressed at the fastest deflate level and objects
+     * are written uncompressed.
+     */
+    public static ReportOptions fast() {
+        return new ReportOptions()
+                .setCompressionLevel(CompressionConstants.BEST_SPEED)
+                .setFullCompression(false);
+    }
+
+    /**
+     * Options tuned for the smallest files, for reports sent over the network: the best deflate level, with
+     * objects packed into compressed object streams and a compressed cross-reference stream.
+     */
+    public static ReportOptions smallest() {
+        return new ReportOptions()
+                .setCompressionLevel(CompressionConstants.BEST_COMPRESSION)
+                .setFullCompression(true);
+    }
+
+    public ChartMode getChartMode() {
+        return chartMode;
+    }
+
+    public ReportOptions setChartMode(ChartMode chartMode) {
+        this.chartMode = chartMode;
+        return this;
+    }
+
+    public ReportFontProvider getFontProvider() {
+        return fontProvider;
+    }
+
+    /**
+     * Sets the font all reports are set in. Share one provider between services to parse its font only once.
+     */
+    public ReportOptions setFontProvider(ReportFontProvider fontProvider) {
+        this.fontProvider = fontProvider;
+        return this;
+    }
+
+    public boolean isDeduplicateTaskSections() {
+        return deduplicateTaskSections;
+    }
+
+    /**
+     * When set, the task report lays out each distinct set of users, products or warehouses once and references
+     * it from every task that shares it, which keeps the output from growing with tasks times members. A shared
+     * section is stamped whole, so it moves to the next page instead of splitting across two. Sections are
+     * matched by the ids of their members, so members with the same id are expected to hold the same data.
+     */
+    public ReportOptions setDeduplicateTaskSections(boolean deduplicateTaskSections) {
+        this.deduplicateTaskSections = deduplicateTaskSections;
+        return this;
+    }
+
+    public TaskLayout getTaskLayout() {
+        return taskLayout;
+    }
+
+    public ReportOptions setTaskLayout(TaskLayout taskLayout) {
+        this.taskLayout = taskLayout;
+        return this;
+    }
+
+    public boolean isIncludeTaskSummary() {
+        return includeTaskSummary;
+    }
+
+    /**
+     * When set, the task report ends with a summary of its tasks: counts per state and priority, active and
+     * inactive counts and the date ranges. The figures are gathered while the tasks are rendered.
+     */
+    public ReportOptions setIncludeTaskSummary(boolean includeTaskSummary) {
+        this.includeTaskSummary = includeTaskSummary;
+        return this;
+    }
+
+    public Executor getChartExecutor() {
+        return chartExecutor;
+    }
+
+    /**
+     * Sets the executor the task report renders its pie chart on while the task tables are laid out. Rendering
+     * ahead costs the sequential report an extra pass over its tasks to count their states, so it pays off only
+     * for charts that take longer than that pass. The default, {@code null}, renders the chart on the calling
+     * thread after the tables.
+     */
+    public ReportOptions setChartExecutor(Executor chartExecutor) {
+        this.chartExecutor = chartExecutor;
+        return this;
+    }
+
+    public ReportMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Sets the listener that receives stage durations, rows, pages, output bytes and allocated bytes of every
+     * report. The default ignores them.
+     */
+    public ReportOptions setMetricsListener(ReportMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        return this;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the deflate level of page content and other streams, from {@link CompressionConstants#NO_COMPRESSION}
+     * to {@link CompressionConstants#BEST_COMPRESSION}, or {@link CompressionConstants#DEFAULT_COMPRESSION}.
+     */
+    public ReportOptions setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < CompressionConstants.DEFAULT_COMPRESSION || compressionLevel > CompressionConstants.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    public boolean isFullCompression() {
+        return fullCompression;
+    }
+
+    /**
+     * When set, objects are written into compressed object streams with a cross-reference stream, which needs
+     * PDF 1.5 or later.
+     */
+    public ReportOptions setFullCompression(boolean fullCompression) {
+        this.fullCompression = fullCompression;
+        return this;
+    }
+
+    public PdfVersion getPdfVersion() {
+        return pdfVersion;
+    }
+
+    /**
+     * Sets the PDF version written into reports; {@code null}, the default, leaves it to iText.
+     */
+    public ReportOptions setPdfVersion(PdfVersion pdfVersion) {
+        this.pdfVersion = pdfVersion;
+        return this;
+    }
+
+    public boolean isAppendable() {
+        return appendable;
+    }
+
+    /**
+     * When set, the warehouse, product and sequential task reports record what
+     * {@link PdfGeneratorService#appendWarehouseReport}, {@link PdfGeneratorService#appendProductReport} and
+     * {@link PdfGeneratorService#appendTaskReport} need to add rows to them later, and the summary and pie chart of
+     * a task report start on a page of their own so they can be replaced.
+     */
+    public ReportOptions setAppendable(boolean appendable) {
+        this.appendable = appendable;
+        return this;
+    }
+}
@@ -0,0 +1,24 @@
+package pdf.generator;
+
+/**
+ * Follows a report while it renders, page by page, for example to show progress or to hand the pages written so
+ * far to a client before the report is done. Called on the thread that renders the report.
+ * <p>
+ * A listener stops a render that is no longer wanted by throwing {@link ReportCancelledException}; the report
+ * method then fails with that exception, leaving an incomplete PDF in its output, and its CPU is free for other
+ * reports.
+ *
+ * @see PdfGeneratorService#generateTaskReport(Iterable, boolean, boolean, boolean, boolean, java.io.OutputStream, ReportPageListener)
+ */
+@FunctionalInterface
+public interface ReportPageListener {
+
+    /**
+     * Called once the first {@code pages} pages are complete and have been written and flushed to the report's
+     * stream, which by then holds {@code bytesWritten} bytes of the report. The last call, for the whole report,
+     * comes once the document is closed and can no longer cancel it.
+     *
+     * @throws ReportCancelledException to stop rendering
+     */
+    void pagesWritten(int pages, long bytesWritten);
+}
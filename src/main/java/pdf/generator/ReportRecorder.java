@@ -0,0 +1,142 @@
+package pdf.generator;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Gathers the {@link ReportMetrics} of one report and hands them to the listener when the report is done.
+ * Stage times are added from the report's thread only; allocations of other threads are added explicitly.
+ */
+class ReportRecorder {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportRecorder.class.getName());
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final String reportType;
+    private final ReportMetricsListener listener;
+    private final long start = System.nanoTime();
+    private final long allocationStart = currentThreadAllocatedBytes();
+    private final long[] stageNanos = new long[ReportStage.values().length];
+    private final AtomicLong otherThreadsAllocated = new AtomicLong();
+    private CountingOutputStream output;
+    private long rows;
+    private int pages;
+
+    ReportRecorder(String reportType, ReportMetricsListener listener) {
+        this.reportType = reportType;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread, or -1 when the JVM does not measure them.
+     */
+    static long currentThreadAllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Wraps the report's output so the bytes written to it are counted.
+     */
+    OutputStream countBytes(OutputStream out) {
+        output = new CountingOutputStream(out);
+        return output;
+    }
+
+    /**
+     * Returns the bytes of the report written to its output so far.
+     */
+    long getBytesWritten() {
+        return output != null ? output.count : 0;
+    }
+
+    void addStageNanos(ReportStage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+    }
+
+    void addRows(long count) {
+        rows += count;
+    }
+
+    void setPages(int pages) {
+        this.pages = pages;
+    }
+
+    /**
+     * Adds bytes allocated on another thread on behalf of this report. Safe to call from any thread.
+     */
+    void addAllocatedBytes(long bytes) {
+        otherThreadsAllocated.addAndGet(bytes);
+    }
+
+    void completed() {
+        ReportMetrics metrics = snapshot();
+        try {
+            listener.reportCompleted(metrics);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Report metrics listener failed", e);
+        }
+    }
+
+    void failed(Throwable error) {
+        ReportMetrics metrics = snapshot();
+        try {
+            listener.reportFailed(metrics, error);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Report metrics listener failed", e);
+        }
+    }
+
+    private ReportMetrics snapshot() {
+        long total = System.nanoTime() - start;
+        Map<ReportStage, Long> stages = new EnumMap<>(ReportStage.class);
+        long measured = 0;
+        for (ReportStage stage : ReportStage.values()) {
+            if (stage != ReportStage.CONVERSION) {
+                stages.put(stage, stageNanos[stage.ordinal()]);
+                measured += stageNanos[stage.ordinal()];
+            }
+        }
+        stages.put(ReportStage.CONVERSION, Math.max(0, total - measured));
+
+        long allocated = -1;
+        long allocationEnd = currentThreadAllocatedBytes();
+        if (allocationStart >= 0 && allocationEnd >= 0) {
+            allocated = allocationEnd - allocationStart + otherThreadsAllocated.get();
+        }
+        return new ReportMetrics(reportType, total, stages, rows, pages, getBytesWritten(), allocated);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package pdf.generator;
+
+import pdf.generator.model.Product;
+import pdf.generator.model.Tasks;
+import pdf.generator.model.User;
+import pdf.generator.model.Warehouse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of finished reports in front of a {@link PdfGeneratorService}, for callers that ask for the same report of
+ * unchanged data again and again.
+ * <p>
+ * A report is keyed by a SHA-256 hash of every field of its input rows, its flags, the options of the service that
+ * change the output and the current date, which is printed in the report header. Finished reports are kept in memory up to {@code maxMemoryBytes} and, when a
+ * directory is given, on disk up to {@code maxDiskBytes}, each tier evicting the least recently used reports first.
+ * Reports found on disk are written to the target channel with {@link FileChannel#transferTo}, which lets the
+ * operating system copy file to socket or file without passing the bytes through the heap; they are not promoted
+ * to the memory tier for that reason. The disk index is rebuilt from the directory when the cache is created, so
+ * cached reports survive a restart, oldest file first in eviction order; temporary files left by a write that
+ * never finished are deleted then.
+ * <p>
+ * The inputs are iterated twice on a miss, once to compute the key and once to render, so they are collections
+ * rather than lazy iterables. Because the key covers the service's {@link ReportOptions}, a report cached before
+ * those options changed, or by a service with other options, is never served in place of a report rendered with
+ * the current ones. Reports are rendered outside the locks, so two threads
+ * missing on the same key at the same time both render it and the last one is kept.
+ */
+public class ReportResultCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportResultCache.class.getName());
+    private static final String SUFFIX = ".pdf";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final PdfGeneratorService service;
+    private final long maxMemoryBytes;
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final Map<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a cache that keeps up to {@code maxMemoryBytes} of reports in memory only.
+     */
+    public ReportResultCache(PdfGeneratorService service, long maxMemoryBytes) {
+        this(service, maxMemoryBytes, null, 0, false);
+    }
+
+    /**
+     * Creates a cache that keeps up to {@code maxMemoryBytes} of reports in memory and up to {@code maxDiskBytes}
+     * as files in {@code directory}, which is created if needed and should not be shared with anything else.
+     */
+    public ReportResultCache(PdfGeneratorService service, long maxMemoryBytes, Path directory, long maxDiskBytes) throws IOException {
+        this(service, maxMemoryBytes, directory, maxDiskBytes, true);
+        Files.createDirectories(directory);
+        loadDiskIndex();
+    }
+
+    private ReportResultCache(PdfGeneratorService service, long maxMemoryBytes, Path directory, long maxDiskBytes, boolean withDisk) {
+        if (maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("maxMemoryBytes must not be negative: " + maxMemoryBytes);
+        }
+        if (maxDiskBytes < 0) {
+            throw new IllegalArgumentException("maxDiskBytes must not be negative: " + maxDiskBytes);
+        }
+        if (withDisk && directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        this.service = service;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+    }
+
+    public void generateUserReport(Collection<User> users, boolean includeTasks, WritableByteChannel channel) throws IOException {
+        String key = new ReportDigest("user", LocalDate.now(), service.getOptions())
+                .putBoolean(includeTasks)
+                .putUsers(users)
+                .toHex();
+        serve(key, out -> service.generateUserReport(users, includeTasks, out), channel);
+    }
+
+    public void generateUserReport(Collection<User> users, boolean includeTasks, OutputStream out) throws IOException {
+        generateUserReport(users, includeTasks, Channels.newChannel(out));
+    }
+
+    public void generateWarehouseReport(Collection<Warehouse> warehouses, WritableByteChannel channel) throws IOException {
+        String key = new ReportDigest("warehouse", LocalDate.now(), service.getOptions())
+                .putWarehouses(warehouses)
+                .toHex();
+        serve(key, out -> service.generateWarehouseReport(warehouses, out), channel);
+    }
+
+    public void generateWarehouseReport(Collection<Warehouse> warehouses, OutputStream out) throws IOException {
+        generateWarehouseReport(warehouses, Channels.newChannel(out));
+    }
+
+    public void generateProductReport(Collection<Product> products, WritableByteChannel channel) throws IOException {
+        String key = new ReportDigest("product", LocalDate.now(), service.getOptions())
+                .putProducts(products)
+                .toHex();
+        serve(key, out -> service.generateProductReport(products, out), channel);
+    }
+
+    public void generateProductReport(Collection<Product> products, OutputStream out) throws IOException {
+        generateProductReport(products, Channels.newChannel(out));
+    }
+
+    /**
+     * Serves the task report. Members of the tasks are part of the key only for the sections that are included.
+     */
+    public void generateTaskReport(Collection<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart,
+                                   WritableByteChannel channel) throws IOException {
+        String key = new ReportDigest("task", LocalDate.now(), service.getOptions())
+                .putBoolean(includeUsers)
+                .putBoolean(includeProducts)
+                .putBoolean(includeWarehouses)
+                .putBoolean(includePieChart)
+                .putTasks(tasks, includeUsers, includeProducts, includeWarehouses)
+                .toHex();
+        serve(key, out -> service.generateTaskReport(tasks, includeUsers, includeProducts, includeWarehouses, includePieChart, out), channel);
+    }
+
+    public void generateTaskReport(Collection<Tasks> tasks, boolean includeUsers, boolean includeProducts, boolean includeWarehouses, boolean includePieChart,
+                                   OutputStream out) throws IOException {
+        generateTaskReport(tasks, includeUsers, includeProducts, includeWarehouses, includePieChart, Channels.newChannel(out));
+    }
+
+    /**
+     * Returns the number of reports served from memory or disk.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getMemoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    public long getDiskBytes() {
+        synchronized (disk) {
+            return diskBytes;
+        }
+    }
+
+    /**
+     * Drops every cached report from memory and deletes the cached files.
+     */
+    public void clear() throws IOException {
+        synchronized (memory) {
+            memory.clear();
+            memoryBytes = 0;
+        }
+        if (directory == null) {
+            return;
+        }
+        List<String> keys;
+        synchronized (disk) {
+            keys = new ArrayList<>(disk.keySet());
+            disk.clear();
+            diskBytes = 0;
+        }
+        for (String key : keys) {
+            Files.deleteIfExists(file(key));
+        }
+    }
+
+    private void serve(String key, Renderer renderer, WritableByteChannel channel) throws IOException {
+        byte[] pdf;
+        synchronized (memory) {
+            pdf = memory.get(key);
+        }
+        if (pdf != null) {
+            hits.incrementAndGet();
+            write(ByteBuffer.wrap(pdf), channel);
+            return;
+        }
+        if (directory != null && transferFromDisk(key, channel)) {
+            hits.incrementAndGet();
+            return;
+        }
+        misses.incrementAndGet();
+
+        ReportByteArrayOutputStream out = new ReportByteArrayOutputStream();
+        renderer.render(out);
+        pdf = out.toByteArray();
+        putInMemory(key, pdf);
+        if (directory != null) {
+            putOnDisk(key, pdf);
+        }
+        write(ByteBuffer.wrap(pdf), channel);
+    }
+
+    private void putInMemory(String key, byte[] pdf) {
+        if (pdf.length > maxMemoryBytes) {
+            return;
+        }
+        synchronized (memory) {
+            byte[] previous = memory.put(key, pdf);
+            memoryBytes += pdf.length - (previous == null ? 0 : previous.length);
+            Iterator<byte[]> eldest = memory.values().iterator();
+            while (memoryBytes > maxMemoryBytes) {
+                memoryBytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Copies the cached file of {@code key} to {@code channel}, or returns {@code false} when there is none.
+     */
+    private boolean transferFromDisk(String key, WritableByteChannel channel) throws IOException {
+        synchronized (disk) {
+            if (disk.get(key) == null) {
+                return false;
+            }
+        }
+        // A file evicted after it is opened can still be read to the end
+        try (FileChannel file = FileChannel.open(file(key), StandardOpenOption.READ)) {
+            long size = file.size();
+            long position = 0;
+            while (position < size) {
+                position += file.transferTo(position, size - position, channel);
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            removeFromDiskIndex(key);
+            return false;
+        }
+    }
+
+    /**
+     * Stores the report as a file, written next to its final name and moved into place so readers never see a
+     * partial file. A failure to store is logged and the report is still served.
+     */
+    private void putOnDisk(String key, byte[] pdf) {
+        if (pdf.length > maxDiskBytes) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+            try {
+                Files.write(temp, pdf);
+                Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            addToDiskIndex(key, pdf.length);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Report could not be cached in " + directory, e);
+        }
+    }
+
+    private void addToDiskIndex(String key, long size) throws IOException {
+        List<String> evicted = new ArrayList<>();
+        synchronized (disk) {
+            Long previous = disk.put(key, size);
+            diskBytes += size - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<String, Long>> eldest = disk.entrySet().iterator();
+            while (diskBytes > maxDiskBytes) {
+                Map.Entry<String, Long> entry = eldest.next();
+                diskBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String evictedKey : evicted) {
+            Files.deleteIfExists(file(evictedKey));
+        }
+    }
+
+    private void removeFromDiskIndex(String key) {
+        synchronized (disk) {
+            Long size = disk.remove(key);
+            if (size != null) {
+                diskBytes -= size;
+            }
+        }
+    }
+
+    /**
+     * Indexes the reports already in the directory, least recently written first, and evicts what no longer fits.
+     * Temporary files of writes cut short by a crash are deleted, since nothing else would ever remove them.
+     */
+    private void loadDiskIndex() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Map<Path, Long> modified = new LinkedHashMap<>();
+        for (Path file : files) {
+            modified.put(file, Files.getLastModifiedTime(file).toMillis());
+        }
+        files.sort((a, b) -> Long.compare(modified.get(a), modified.get(b)));
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            addToDiskIndex(name.substring(0, name.length() - SUFFIX.length()), Files.size(file));
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static void write(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Renderer {
+        void render(OutputStream out) throws IOException;
+    }
+}
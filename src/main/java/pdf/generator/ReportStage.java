@@ -0,0 +1,29 @@
+package pdf.generator;
+
+/**
+ * The stages whose durations are reported in {@link ReportMetrics}.
+ */
+public enum ReportStage {
+
+    /**
+     * Reading the input and turning it into table cells: all time of a report that is not spent in another stage.
+     */
+    CONVERSION,
+
+    /**
+     * Laying elements out on pages. Full pages are compressed and written to the output during this stage.
+     */
+    LAYOUT,
+
+    /**
+     * Producing the pie chart on the report's thread. A chart rendered ahead on the chart executor costs only the
+     * cache lookup here.
+     */
+    CHART,
+
+    /**
+     * Closing the document: finishing the last page and writing the shared resources, such as fonts, and the
+     * cross-reference table.
+     */
+    WRITE
+}
@@ -0,0 +1,42 @@
+package pdf.generator;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Drops the first {@code skip} bytes written and passes the rest on. An incremental update written in append mode
+ * starts with a copy of the original file; when the update goes to the end of that same file, the copy is dropped
+ * here instead of being written over the original.
+ */
+class SkippingOutputStream extends FilterOutputStream {
+
+    private long skip;
+
+    SkippingOutputStream(OutputStream out, long skip) {
+        super(out);
+        this.skip = skip;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (skip > 0) {
+            skip--;
+        } else {
+            out.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (skip > 0) {
+            int skipped = (int) Math.min(skip, len);
+            skip -= skipped;
+            off += skipped;
+            len -= skipped;
+        }
+        if (len > 0) {
+            out.write(b, off, len);
+        }
+    }
+}
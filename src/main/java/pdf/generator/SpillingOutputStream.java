@@ -0,0 +1,275 @@
+package pdf.generator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Report buffer that keeps small reports on the heap and moves larger ones to a temporary file, so a report of
+ * hundreds of megabytes never needs an array of that size.
+ * <p>
+ * Up to {@code threshold} bytes are held in an array that grows by doubling but never beyond the threshold. The
+ * first write past it copies the array to a temporary file and every later write goes through a fixed 64 KB buffer
+ * to that file. Once the stream is closed, {@link #toInputStream()} returns readers of the content; readers of a
+ * spilled report read the file with positional {@link FileChannel} reads, so any number of them can read it at the
+ * same time, each from its own position, without copying the file onto the heap.
+ * <p>
+ * The temporary file is deleted once the stream has been {@linkplain #discard() discarded} and every reader taken
+ * from it has been closed, and at the latest when the JVM exits. The stream is not thread-safe; its readers are.
+ */
+public class SpillingOutputStream extends OutputStream {
+
+    private static final int INITIAL_CAPACITY = 32 * 1024;
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    private final long threshold;
+    private final Path directory;
+    private byte[] memory;
+    private int count;
+    private Spill spill;
+    private ByteBuffer fileBuffer;
+    private boolean closed;
+    private boolean discarded;
+
+    /**
+     * Creates a buffer that spills to the default temporary-file directory past {@code threshold} bytes.
+     */
+    public SpillingOutputStream(long threshold) {
+        this(threshold, null);
+    }
+
+    /**
+     * Creates a buffer that spills to {@code directory} past {@code threshold} bytes.
+     */
+    public SpillingOutputStream(long threshold, Path directory) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative: " + threshold);
+        }
+        this.threshold = Math.min(threshold, Integer.MAX_VALUE - 8);
+        this.directory = directory;
+        this.memory = new byte[(int) Math.min(this.threshold, INITIAL_CAPACITY)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (spill == null && count + (long) len > threshold) {
+            spill();
+        }
+        if (spill == null) {
+            if (count + len > memory.length) {
+                memory = Arrays.copyOf(memory, (int) Math.min(threshold, Math.max(count + len, memory.length * 2L)));
+            }
+            System.arraycopy(b, off, memory, count, len);
+            count += len;
+        } else {
+            while (len > 0) {
+                int chunk = Math.min(len, fileBuffer.remaining());
+                fileBuffer.put(b, off, chunk);
+                off += chunk;
+                len -= chunk;
+                if (!fileBuffer.hasRemaining()) {
+                    flushFileBuffer();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes what is still buffered to the temporary file. The content can be read once the stream is closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (spill != null) {
+            flushFileBuffer();
+            fileBuffer = null;
+        }
+    }
+
+    /**
+     * Returns whether the content was moved to a temporary file.
+     */
+    public boolean isSpilled() {
+        return spill != null;
+    }
+
+    public long size() {
+        return spill != null ? spill.size : count;
+    }
+
+    /**
+     * Returns a new reader of the content, positioned at its start. Readers of a spilled report must be closed to
+     * release the temporary file.
+     *
+     * @throws IllegalStateException when the stream is not closed yet or has been discarded
+     */
+    public InputStream toInputStream() {
+        if (!closed) {
+            throw new IllegalStateException("Stream is not closed");
+        }
+        if (discarded) {
+            throw new IllegalStateException("Stream has been discarded");
+        }
+        if (spill == null) {
+            return new ByteArrayInputStream(memory, 0, count);
+        }
+        spill.retain();
+        return new SpillInputStream(spill);
+    }
+
+    /**
+     * Closes the stream and gives up its hold on the content: the heap buffer is dropped and the temporary file is
+     * deleted as soon as no reader uses it any more.
+     */
+    public void discard() throws IOException {
+        if (discarded) {
+            return;
+        }
+        try {
+            close();
+        } finally {
+            discarded = true;
+            memory = null;
+            if (spill != null) {
+                spill.release();
+            }
+        }
+    }
+
+    private void spill() throws IOException {
+        Path file = directory == null ? Files.createTempFile("report-", ".pdf") : Files.createTempFile(directory, "report-", ".pdf");
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        spill = new Spill(channel);
+        fileBuffer = ByteBuffer.allocate(FILE_BUFFER_SIZE);
+        ByteBuffer buffered = ByteBuffer.wrap(memory, 0, count);
+        while (buffered.hasRemaining()) {
+            channel.write(buffered);
+        }
+        spill.size = count;
+        memory = null;
+        count = 0;
+    }
+
+    private void flushFileBuffer() throws IOException {
+        fileBuffer.flip();
+        while (fileBuffer.hasRemaining()) {
+            spill.size += spill.channel.write(fileBuffer);
+        }
+        fileBuffer.clear();
+    }
+
+    /**
+     * A temporary file shared by the stream and its readers, closed, and so deleted, when the last of them lets go.
+     */
+    private static final class Spill {
+
+        private final FileChannel channel;
+        private long size;
+        private int references = 1;
+
+        Spill(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        synchronized void retain() {
+            references++;
+        }
+
+        synchronized void release() throws IOException {
+            if (--references == 0) {
+                channel.close();
+            }
+        }
+    }
+
+    private static final class SpillInputStream extends InputStream {
+
+        private final Spill spill;
+        private long position;
+        private boolean closed;
+
+        SpillInputStream(Spill spill) {
+            this.spill = spill;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= spill.size) {
+                return -1;
+            }
+            ByteBuffer target = ByteBuffer.wrap(b, off, (int) Math.min(len, spill.size - position));
+            int read = 0;
+            while (target.hasRemaining()) {
+                int n = spill.channel.read(target, position + read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, spill.size - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, spill.size - position));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                spill.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package pdf.generator;
+
+/**
+ * How the tasks of a task report are laid out.
+ */
+public enum TaskLayout {
+
+    /**
+     * Every task gets its own table with a header row, followed by separators and its optional sections.
+     */
+    DETAILED,
+
+    /**
+     * All tasks are rows of one table that is laid out and flushed as it grows, with its header repeated on
+     * every page. Optional sections sit in a full-width row under their task. Far less layout work and fewer
+     * pages than {@link #DETAILED} for large reports; with sections, most of the work is the section tables
+     * themselves, so pair it with deduplicated sections.
+     */
+    COMPACT
+}
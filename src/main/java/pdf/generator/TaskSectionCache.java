@@ -0,0 +1,124 @@
+package pdf.generator;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.layout.LayoutArea;
+import com.itextpdf.layout.layout.LayoutContext;
+import com.itextpdf.layout.layout.LayoutResult;
+import com.itextpdf.layout.properties.Property;
+import com.itextpdf.layout.renderer.IRenderer;
+import pdf.generator.model.Product;
+import pdf.generator.model.User;
+import pdf.generator.model.Warehouse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Renders each distinct Users, Products or Warehouses section of a task report once, as a Form XObject of the
+ * report's PDF, and references that XObject from every task with the same members instead of laying the table
+ * out again.
+ * <p>
+ * Sections are matched by section title and by the ids of their members in iteration order, so tasks whose rows
+ * were loaded separately still share one XObject as long as they list the same users, products or warehouses. A
+ * member set with a member that has no id is matched only by the equality of the set itself, which for the model
+ * classes means the very same instances. An XObject does not split across pages, so a section taller than the room
+ * the caller allows is not stamped; the caller lays it out as a normal table every time. One cache serves one
+ * document and is not thread-safe.
+ */
+class TaskSectionCache {
+
+    private final Document document;
+    private final float maxHeight;
+    private final Map<Object, PdfFormXObject> sections = new HashMap<>();
+
+    /**
+     * Creates a cache for sections of {@code document} that are stamped only when at most {@code maxHeight} tall.
+     */
+    TaskSectionCache(Document document, float maxHeight) {
+        this.document = document;
+        this.maxHeight = maxHeight;
+    }
+
+    /**
+     * Returns the section titled {@code title} for {@code members} as an image of its shared XObject, building it
+     * with {@code section} only the first time these members are seen, or {@code null} when the section does not
+     * fit on one page and has to be laid out in place.
+     */
+    Image get(String title, Set<?> members, Supplier<Div> section) {
+        Object key = key(title, members);
+        PdfFormXObject xObject = sections.get(key);
+        if (xObject == null && !sections.containsKey(key)) {
+            xObject = render(section.get());
+            sections.put(key, xObject);
+        }
+        return xObject == null ? null : new Image(xObject);
+    }
+
+    /**
+     * Returns the title followed by the id of every member, or the title and the set itself when a member has no id.
+     */
+    private static Object key(String title, Set<?> members) {
+        List<Object> key = new ArrayList<>(members.size() + 1);
+        key.add(title);
+        for (Object member : members) {
+            Long id = id(member);
+            if (id == null) {
+                return Arrays.asList(title, members);
+            }
+            key.add(id);
+        }
+        return key;
+    }
+
+    private static Long id(Object member) {
+        if (member instanceof User) {
+            return ((User) member).getId();
+        }
+        if (member instanceof Product) {
+            return ((Product) member).getId();
+        }
+        if (member instanceof Warehouse) {
+            return ((Warehouse) member).getId();
+        }
+        return null;
+    }
+
+    /**
+     * Lays the section out into a Form XObject as wide as the content area and exactly as tall as the section, or
+     * returns {@code null} when the section is taller than {@code maxHeight}.
+     */
+    private PdfFormXObject render(Div section) {
+        PdfDocument pdfDoc = document.getPdfDocument();
+        Rectangle page = pdfDoc.getDefaultPageSize();
+        float width = page.getWidth() - document.getLeftMargin() - document.getRightMargin();
+
+        IRenderer renderer = section.createRendererSubTree().setParent(document.getRenderer());
+        LayoutResult result = renderer.layout(new LayoutContext(new LayoutArea(1, new Rectangle(width, maxHeight))));
+        if (result.getStatus() != LayoutResult.FULL) {
+            return null;
+        }
+        float height = result.getOccupiedArea().getBBox().getHeight();
+
+        PdfFormXObject xObject = new PdfFormXObject(new Rectangle(width, height));
+        Canvas canvas = new Canvas(xObject, pdfDoc);
+        PdfFont font = document.getProperty(Property.FONT);
+        if (font != null) {
+            canvas.setFont(font);
+        }
+        canvas.add(section);
+        canvas.close();
+        return xObject;
+    }
+}
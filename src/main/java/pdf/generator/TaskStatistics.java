@@ -0,0 +1,279 @@
+package pdf.generator;
+
+import pdf.generator.model.Tasks;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics of a task report, accumulated in a single pass while the tasks are rendered: the number of tasks per
+ * state and per priority, active and inactive counts, and the range of creation, start and end dates.
+ * <p>
+ * States and priorities are small numbers in practice, so they are counted in primitive arrays indexed by value;
+ * other values fall back to a map. Partial statistics, for example of the chunks of a parallel report, are merged
+ * with {@link #combine(TaskStatistics)}. Instances are not thread-safe.
+ */
+public final class TaskStatistics {
+
+    private final Histogram states = new Histogram();
+    private final Histogram priorities = new Histogram();
+    private long taskCount;
+    private long activeCount;
+    private LocalDateTime firstCreation;
+    private LocalDateTime lastCreation;
+    private LocalDateTime firstStart;
+    private LocalDateTime lastEnd;
+
+    /**
+     * Returns the statistics of {@code tasks}, for callers that need them before the tasks are rendered.
+     */
+    public static TaskStatistics of(Iterable<Tasks> tasks) {
+        TaskStatistics statistics = new TaskStatistics();
+        for (Tasks task : tasks) {
+            statistics.accept(task);
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns the number of tasks per state of {@code tasks}, in ascending state order, reading nothing but their
+     * states.
+     */
+    public static Map<Integer, Long> stateCountsOf(Iterable<Tasks> tasks) {
+        Histogram states = new Histogram();
+        for (Tasks task : tasks) {
+            states.add(task.getState());
+        }
+        return states.toMap();
+    }
+
+    public void accept(Tasks task) {
+        taskCount++;
+        if (Boolean.TRUE.equals(task.getActive())) {
+            activeCount++;
+        }
+        states.add(task.getState());
+        priorities.add(task.getPriority());
+        firstCreation = min(firstCreation, task.getCreationDate());
+        lastCreation = max(lastCreation, task.getCreationDate());
+        firstStart = min(firstStart, task.getStartDate());
+        lastEnd = max(lastEnd, task.getEndDate());
+    }
+
+    /**
+     * Adds the statistics of {@code other} to these and returns them.
+     */
+    public TaskStatistics combine(TaskStatistics other) {
+        taskCount += other.taskCount;
+        activeCount += other.activeCount;
+        states.addAll(other.states);
+        priorities.addAll(other.priorities);
+        firstCreation = min(firstCreation, other.firstCreation);
+        lastCreation = max(lastCreation, other.lastCreation);
+        firstStart = min(firstStart, other.firstStart);
+        lastEnd = max(lastEnd, other.lastEnd);
+        return this;
+    }
+
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    public long getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * Returns the number of tasks that are not marked active, including those without an active flag.
+     */
+    public long getInactiveCount() {
+        return taskCount - activeCount;
+    }
+
+    /**
+     * Returns the number of tasks per state, in ascending state order.
+     */
+    public Map<Integer, Long> getStateCounts() {
+        return states.toMap();
+    }
+
+    /**
+     * Returns the number of tasks per priority, in ascending priority order.
+     */
+    public Map<Integer, Long> getPriorityCounts() {
+        return priorities.toMap();
+    }
+
+    public LocalDateTime getFirstCreationDate() {
+        return firstCreation;
+    }
+
+    public LocalDateTime getLastCreationDate() {
+        return lastCreation;
+    }
+
+    public LocalDateTime getFirstStartDate() {
+        return firstStart;
+    }
+
+    public LocalDateTime getLastEndDate() {
+        return lastEnd;
+    }
+
+    /**
+     * Returns these statistics as one line of text that {@link #decode(String)} reads back, so they can be stored
+     * with a report that is extended later.
+     */
+    String encode() {
+        return "tasks=" + taskCount
+                + ";active=" + activeCount
+                + ";states=" + encode(states.toMap())
+                + ";priorities=" + encode(priorities.toMap())
+                + ";firstCreation=" + firstCreation
+                + ";lastCreation=" + lastCreation
+                + ";firstStart=" + firstStart
+                + ";lastEnd=" + lastEnd;
+    }
+
+    /**
+     * Reads statistics written by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException when {@code text} is not in that form
+     */
+    static TaskStatistics decode(String text) {
+        Map<String, String> fields = new HashMap<>();
+        for (String field : text.split(";")) {
+            int separator = field.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed task statistics: " + text);
+            }
+            fields.put(field.substring(0, separator), field.substring(separator + 1));
+        }
+        try {
+            TaskStatistics statistics = new TaskStatistics();
+            statistics.taskCount = Long.parseLong(fields.get("tasks"));
+            statistics.activeCount = Long.parseLong(fields.get("active"));
+            decode(fields.get("states"), statistics.states);
+            decode(fields.get("priorities"), statistics.priorities);
+            statistics.firstCreation = decodeDate(fields.get("firstCreation"));
+            statistics.lastCreation = decodeDate(fields.get("lastCreation"));
+            statistics.firstStart = decodeDate(fields.get("firstStart"));
+            statistics.lastEnd = decodeDate(fields.get("lastEnd"));
+            return statistics;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed task statistics: " + text, e);
+        }
+    }
+
+    private static String encode(Map<Integer, Long> counts) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(entry.getKey()).append(':').append(entry.getValue());
+        }
+        return text.toString();
+    }
+
+    private static void decode(String text, Histogram histogram) {
+        if (text.isEmpty()) {
+            return;
+        }
+        for (String entry : text.split(",")) {
+            int separator = entry.indexOf(':');
+            String value = entry.substring(0, separator);
+            histogram.add("null".equals(value) ? null : Integer.valueOf(value), Long.parseLong(entry.substring(separator + 1)));
+        }
+    }
+
+    private static LocalDateTime decodeDate(String text) {
+        return "null".equals(text) ? null : LocalDateTime.parse(text);
+    }
+
+    private static LocalDateTime min(LocalDateTime current, LocalDateTime candidate) {
+        return candidate != null && (current == null || candidate.isBefore(current)) ? candidate : current;
+    }
+
+    private static LocalDateTime max(LocalDateTime current, LocalDateTime candidate) {
+        return candidate != null && (current == null || candidate.isAfter(current)) ? candidate : current;
+    }
+
+    /**
+     * Counts values below {@code DENSE_LIMIT} in an array indexed by value and everything else, {@code null}
+     * included, in a map.
+     */
+    private static final class Histogram {
+
+        private static final int DENSE_LIMIT = 256;
+
+        private long[] dense = new long[8];
+        private Map<Integer, Long> sparse;
+
+        void add(Integer value) {
+            add(value, 1);
+        }
+
+        void add(Integer value, long count) {
+            if (value != null && value >= 0 && value < DENSE_LIMIT) {
+                add(value.intValue(), count);
+            } else {
+                addSparse(value, count);
+            }
+        }
+
+        void addAll(Histogram other) {
+            for (int value = 0; value < other.dense.length; value++) {
+                if (other.dense[value] != 0) {
+                    add(value, other.dense[value]);
+                }
+            }
+            if (other.sparse != null) {
+                for (Map.Entry<Integer, Long> entry : other.sparse.entrySet()) {
+                    addSparse(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        private void add(int value, long count) {
+            if (value >= dense.length) {
+                dense = Arrays.copyOf(dense, Math.min(DENSE_LIMIT, Math.max(value + 1, dense.length * 2)));
+            }
+            dense[value] += count;
+        }
+
+        private void addSparse(Integer value, long count) {
+            if (sparse == null) {
+                sparse = new HashMap<>();
+            }
+            sparse.merge(value, count, Long::sum);
+        }
+
+        Map<Integer, Long> toMap() {
+            Map<Integer, Long> counts = new LinkedHashMap<>();
+            Map<Integer, Long> others = sparse == null ? Collections.<Integer, Long>emptyMap() : sparse;
+            if (others.containsKey(null)) {
+                counts.put(null, others.get(null));
+            }
+            TreeMap<Integer, Long> sorted = new TreeMap<>();
+            for (Map.Entry<Integer, Long> entry : others.entrySet()) {
+                if (entry.getKey() != null) {
+                    sorted.put(entry.getKey(), entry.getValue());
+                }
+            }
+            counts.putAll(sorted.headMap(0));
+            for (int value = 0; value < dense.length; value++) {
+                if (dense[value] != 0) {
+                    counts.put(value, dense[value]);
+                }
+            }
+            counts.putAll(sorted.tailMap(0));
+            return counts;
+        }
+    }
+}
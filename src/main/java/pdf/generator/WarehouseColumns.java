@@ -0,0 +1,212 @@
+package pdf.generator;
+
+import pdf.generator.model.Warehouse;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Warehouse report rows stored by column, for inputs too large to hold as a list of {@link Warehouse} objects.
+ * <p>
+ * Each field is a primitive array: the ids are {@code long}s with a bit set marking the missing ones, the
+ * dimensions are {@code int}s, and building and zone, which repeat a handful of values, are {@code int} codes into
+ * a dictionary of distinct strings. A row costs about 30 bytes instead of the hundred or so of a {@code Warehouse}
+ * with its two boxed ids and its slot in a list, and the report reads the arrays in order without touching an
+ * object per row.
+ * <p>
+ * Rows are appended with {@code add}; the arrays grow as needed. The batch is not thread-safe while it is being
+ * filled, but any number of reports may render it at the same time once it is complete.
+ */
+public final class WarehouseColumns {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final Dictionary buildings = new Dictionary();
+    private final Dictionary zones = new Dictionary();
+    private int[] building;
+    private int[] zone;
+    private long[] spaceId;
+    private int[] spaceHeight;
+    private int[] spaceWidth;
+    private int[] spaceLength;
+    private long[] productId;
+    private final BitSet missingSpaceId = new BitSet();
+    private final BitSet missingProductId = new BitSet();
+    private int size;
+
+    public WarehouseColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a batch with room for {@code capacity} rows before its arrays grow.
+     */
+    public WarehouseColumns(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        building = new int[capacity];
+        zone = new int[capacity];
+        spaceId = new long[capacity];
+        spaceHeight = new int[capacity];
+        spaceWidth = new int[capacity];
+        spaceLength = new int[capacity];
+        productId = new long[capacity];
+    }
+
+    /**
+     * Returns a batch with the fields of {@code warehouses} shown in the warehouse report.
+     */
+    public static WarehouseColumns from(Iterable<Warehouse> warehouses) {
+        WarehouseColumns columns = new WarehouseColumns();
+        for (Warehouse warehouse : warehouses) {
+            columns.add(warehouse);
+        }
+        return columns;
+    }
+
+    public WarehouseColumns add(Warehouse warehouse) {
+        return add(warehouse.getBuilding(), warehouse.getZone(), warehouse.getSpaceId(), warehouse.getSpaceHeight(),
+                warehouse.getSpaceWidth(), warehouse.getSpaceLength(), warehouse.getProductId());
+    }
+
+    /**
+     * Appends a row whose ids may be missing, shown as {@code null} like those of a {@code Warehouse}.
+     */
+    public WarehouseColumns add(String building, String zone, Long spaceId, int spaceHeight, int spaceWidth,
+                                int spaceLength, Long productId) {
+        int row = size;
+        add(building, zone, spaceId == null ? 0 : spaceId, spaceHeight, spaceWidth, spaceLength,
+                productId == null ? 0 : productId);
+        if (spaceId == null) {
+            missingSpaceId.set(row);
+        }
+        if (productId == null) {
+            missingProductId.set(row);
+        }
+        return this;
+    }
+
+    public WarehouseColumns add(String building, String zone, long spaceId, int spaceHeight, int spaceWidth,
+                                int spaceLength, long productId) {
+        if (size == this.building.length) {
+            grow();
+        }
+        this.building[size] = buildings.encode(building);
+        this.zone[size] = zones.encode(zone);
+        this.spaceId[size] = spaceId;
+        this.spaceHeight[size] = spaceHeight;
+        this.spaceWidth[size] = spaceWidth;
+        this.spaceLength[size] = spaceLength;
+        this.productId[size] = productId;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the rows in order through a single cursor that moves on to the next row on each step, so a reader
+     * must be done with a row before it takes the next one.
+     */
+    Iterable<Row> rows() {
+        return () -> new Iterator<Row>() {
+            private final int end = size;
+            private final Row row = new Row();
+
+            @Override
+            public boolean hasNext() {
+                return row.index + 1 < end;
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                row.index++;
+                return row;
+            }
+        };
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, building.length * 2);
+        building = Arrays.copyOf(building, capacity);
+        zone = Arrays.copyOf(zone, capacity);
+        spaceId = Arrays.copyOf(spaceId, capacity);
+        spaceHeight = Arrays.copyOf(spaceHeight, capacity);
+        spaceWidth = Arrays.copyOf(spaceWidth, capacity);
+        spaceLength = Arrays.copyOf(spaceLength, capacity);
+        productId = Arrays.copyOf(productId, capacity);
+    }
+
+    /**
+     * The row a cursor of {@link #rows()} is on, read by the report columns.
+     */
+    final class Row {
+        private int index = -1;
+
+        String getBuilding() {
+            return buildings.decode(building[index]);
+        }
+
+        String getZone() {
+            return zones.decode(zone[index]);
+        }
+
+        String getSpaceIdText() {
+            return missingSpaceId.get(index) ? "null" : NumberText.of(spaceId[index]);
+        }
+
+        int getSpaceHeight() {
+            return spaceHeight[index];
+        }
+
+        int getSpaceWidth() {
+            return spaceWidth[index];
+        }
+
+        int getSpaceLength() {
+            return spaceLength[index];
+        }
+
+        String getProductIdText() {
+            return missingProductId.get(index) ? "null" : NumberText.of(productId[index]);
+        }
+    }
+
+    /**
+     * Distinct strings of a column, each stored once and referred to by its index; {@code null} is -1.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[16];
+
+        int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                if (code == values.length) {
+                    values = Arrays.copyOf(values, code * 2);
+                }
+                values[code] = value;
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return code < 0 ? null : values[code];
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package pdf.generator.server;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits renders while their estimated heap use fits in a fixed budget. Costs are counted in kilobytes so budgets
+ * of many gigabytes fit in the permits of a semaphore; a cost larger than the whole budget is capped to it, so such
+ * a render still runs, alone.
+ */
+class AdmissionController {
+
+    private final int capacity;
+    private final Semaphore permits;
+
+    AdmissionController(long budgetBytes) {
+        if (budgetBytes < 1024) {
+            throw new IllegalArgumentException("Budget must be at least 1024 bytes: " + budgetBytes);
+        }
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, budgetBytes / 1024);
+        this.permits = new Semaphore(capacity, true);
+    }
+
+    /**
+     * Waits up to {@code timeoutMillis} for room for {@code bytes} and returns the permits to pass to
+     * {@link #release(int)}, or -1 when there was no room in time.
+     */
+    int acquire(long bytes, long timeoutMillis) throws InterruptedException {
+        int cost = cost(bytes);
+        return permits.tryAcquire(cost, timeoutMillis, TimeUnit.MILLISECONDS) ? cost : -1;
+    }
+
+    /**
+     * Changes a held cost to that of {@code bytes}, returning surplus permits at once and waiting up to
+     * {@code timeoutMillis} for missing ones. Returns the new cost, or -1 when there was no room in time, in which
+     * case {@code cost} is still held.
+     */
+    int resize(int cost, long bytes, long timeoutMillis) throws InterruptedException {
+        int newCost = cost(bytes);
+        if (newCost <= cost) {
+            permits.release(cost - newCost);
+            return newCost;
+        }
+        return permits.tryAcquire(newCost - cost, timeoutMillis, TimeUnit.MILLISECONDS) ? newCost : -1;
+    }
+
+    /**
+     * Returns the part of a held {@code cost} that covers {@code bytes}, at most the cost itself, for the holder to
+     * release separately from the rest.
+     */
+    int share(int cost, long bytes) {
+        return Math.min(cost, cost(bytes));
+    }
+
+    void release(int cost) {
+        permits.release(cost);
+    }
+
+    private int cost(long bytes) {
+        return (int) Math.max(1, Math.min(capacity, (bytes + 1023) / 1024));
+    }
+
+    /**
+     * Returns the part of the budget in use, in bytes.
+     */
+    long getUsedBytes() {
+        return (capacity - (long) permits.availablePermits()) * 1024;
+    }
+}
@@ -0,0 +1,149 @@
+package pdf.generator.server;
+
+import pdf.generator.SpillingOutputStream;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves concurrent requests for the same key with one render. The first request renders; requests arriving while
+ * it runs wait for it, and each then reads the shared result with a reader of its own. Once the render is done the
+ * key is free again, so later requests render afresh. The rendered output is discarded when the last request that
+ * joined has closed its reader, or has failed to get one.
+ *
+ * @param <K> the key of a render
+ */
+class RenderCoalescer<K> {
+
+    private final Map<K, Flight> flights = new HashMap<>();
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Returns a reader of the output rendered for {@code key}, by {@code renderer} or by the request already
+     * rendering it. The reader must be closed; the output stays in memory or on disk until it is.
+     */
+    InputStream get(K key, Renderer renderer) throws IOException {
+        Flight flight;
+        boolean leader = false;
+        synchronized (flights) {
+            flight = flights.get(key);
+            if (flight == null) {
+                flight = new Flight();
+                flights.put(key, flight);
+                leader = true;
+            }
+            flight.waiters++;
+        }
+        if (leader) {
+            renders.incrementAndGet();
+            try {
+                flight.result.complete(renderer.render());
+            } catch (Throwable e) {
+                flight.result.completeExceptionally(e);
+            } finally {
+                synchronized (flights) {
+                    flights.remove(key);
+                    flight.done = true;
+                }
+            }
+        } else {
+            coalesced.incrementAndGet();
+        }
+        InputStream in;
+        try {
+            in = join(flight).toInputStream();
+        } catch (IOException | RuntimeException | Error e) {
+            release(flight);
+            throw e;
+        }
+        return new FlightInputStream(in, flight);
+    }
+
+    long getRenderCount() {
+        return renders.get();
+    }
+
+    long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    private SpillingOutputStream join(Flight flight) throws IOException {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void release(Flight flight) {
+        boolean last;
+        synchronized (flights) {
+            last = --flight.waiters == 0 && flight.done;
+        }
+        if (last && !flight.result.isCompletedExceptionally()) {
+            try {
+                flight.result.join().discard();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Renderer {
+        /**
+         * Renders into a closed buffer that the coalescer hands out and discards once its last reader is closed.
+         */
+        SpillingOutputStream render() throws IOException;
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<SpillingOutputStream> result = new CompletableFuture<>();
+        private int waiters;
+        private boolean done;
+    }
+
+    /**
+     * A reader of a flight's output that gives up the request's hold on the output when it is closed.
+     */
+    private final class FlightInputStream extends FilterInputStream {
+        private final Flight flight;
+        private boolean closed;
+
+        FlightInputStream(InputStream in, Flight flight) {
+            super(in);
+            this.flight = flight;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                release(flight);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package pdf.generator.server;
+
+import pdf.generator.model.Product;
+import pdf.generator.model.Tasks;
+import pdf.generator.model.User;
+import pdf.generator.model.Warehouse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where a {@link ReportServer} gets the rows of each tenant's reports.
+ * <p>
+ * The server asks for the version first and loads rows only when no render of the same report and version is
+ * already running, so concurrent requests for unchanged data cost one load and one render. Implementations are
+ * called from many threads at once.
+ */
+public interface ReportDataSource {
+
+    /**
+     * Returns a version of the data of {@code tenant} behind reports of {@code type} that changes whenever the data
+     * changes, such as a sequence number or a last-modified timestamp. It must be cheap: every request asks for it.
+     */
+    String getVersion(String tenant, ReportType type) throws IOException;
+
+    /**
+     * Returns about how many rows the report of {@code type} for {@code tenant} has, or -1 when that is not known
+     * cheaply. The server reserves memory for a render from this estimate before it loads the rows, and corrects
+     * the reservation once they are loaded; without an estimate it reserves for
+     * {@linkplain ReportServerOptions#setDefaultRowEstimate a default number of rows}.
+     */
+    default long estimateRows(String tenant, ReportType type) throws IOException {
+        return -1;
+    }
+
+    List<User> getUsers(String tenant) throws IOException;
+
+    List<Warehouse> getWarehouses(String tenant) throws IOException;
+
+    List<Product> getProducts(String tenant) throws IOException;
+
+    List<Tasks> getTasks(String tenant) throws IOException;
+}
@@ -0,0 +1,58 @@
+package pdf.generator.server;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Identifies a rendered report: requests with equal keys get the same bytes, so they can share one render.
+ */
+final class ReportKey {
+
+    private final String tenant;
+    private final ReportType type;
+    private final Map<String, Boolean> flags;
+    private final String version;
+
+    ReportKey(String tenant, ReportType type, Map<String, Boolean> flags, String version) {
+        this.tenant = tenant;
+        this.type = type;
+        this.flags = new TreeMap<>(flags);
+        this.version = version;
+    }
+
+    String getTenant() {
+        return tenant;
+    }
+
+    ReportType getType() {
+        return type;
+    }
+
+    boolean flag(String name) {
+        return Boolean.TRUE.equals(flags.get(name));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReportKey)) {
+            return false;
+        }
+        ReportKey other = (ReportKey) o;
+        return tenant.equals(other.tenant) && type == other.type && flags.equals(other.flags)
+                && Objects.equals(version, other.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tenant, type, flags, version);
+    }
+
+    @Override
+    public String toString() {
+        return tenant + "/" + type.getPath() + flags + "@" + version;
+    }
+}
@@ -0,0 +1,394 @@
+package pdf.generator.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import pdf.generator.PdfGeneratorService;
+import pdf.generator.SpillingOutputStream;
+import pdf.generator.model.Product;
+import pdf.generator.model.Tasks;
+import pdf.generator.model.User;
+import pdf.generator.model.Warehouse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Small embeddable HTTP server for the four reports of a {@link PdfGeneratorService}, built on the JDK's
+ * {@link HttpServer}.
+ * <p>
+ * Reports are served under {@code GET /reports/<tenant>/<type>}, where the type is {@code users},
+ * {@code warehouses}, {@code products} or {@code tasks}, with the report flags as boolean query parameters:
+ * {@code includeTasks} for users and {@code includeUsers}, {@code includeProducts}, {@code includeWarehouses} and
+ * {@code includePieChart} for tasks.
+ * <ul>
+ *     <li>Identical requests, for the same tenant, report, flags and {@linkplain ReportDataSource#getVersion data
+ *     version}, that arrive while one of them renders are served by that one render.</li>
+ *     <li>A render is admitted only while the estimated heap of all running renders fits in the memory budget: its
+ *     output buffer plus a cost per input row. The room is reserved from the data source's row estimate before the
+ *     rows are loaded and corrected once they are. A render that finds no room within the admission timeout is
+ *     answered with {@code 503 Service Unavailable} and a {@code Retry-After} header instead of risking the heap.</li>
+ *     <li>Reports are rendered into a {@link SpillingOutputStream}, so large ones wait in a temporary file rather
+ *     than on the heap, and are sent with chunked transfer encoding.</li>
+ * </ul>
+ * Requests are handled on a fixed pool of threads unless an executor is configured; on a runtime with virtual
+ * threads, a virtual-thread-per-task executor lets waiting requests cost no platform thread.
+ */
+public class ReportServer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportServer.class.getName());
+    private static final String CONTEXT = "/reports/";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PdfGeneratorService service;
+    private final ReportDataSource data;
+    private final ReportServerOptions options;
+    private final HttpServer server;
+    private final ExecutorService ownedExecutor;
+    private final AdmissionController admission;
+    private final RenderCoalescer<ReportKey> coalescer = new RenderCoalescer<>();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Creates a server bound to the configured port. It accepts requests once {@link #start()} is called.
+     */
+    public ReportServer(PdfGeneratorService service, ReportDataSource data, ReportServerOptions options) throws IOException {
+        this.service = service;
+        this.data = data;
+        this.options = options;
+        this.admission = new AdmissionController(options.getMemoryBudgetBytes());
+        this.server = HttpServer.create(new InetSocketAddress(options.getPort()), options.getBacklog());
+        if (options.getExecutor() != null) {
+            this.ownedExecutor = null;
+            server.setExecutor(options.getExecutor());
+        } else {
+            this.ownedExecutor = Executors.newFixedThreadPool(options.getThreads(), new RequestThreadFactory());
+            server.setExecutor(ownedExecutor);
+        }
+        server.createContext(CONTEXT, this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of renders started, one per group of coalesced requests.
+     */
+    public long getRenderCount() {
+        return coalescer.getRenderCount();
+    }
+
+    /**
+     * Returns the number of requests served by a render another request started.
+     */
+    public long getCoalescedCount() {
+        return coalescer.getCoalescedCount();
+    }
+
+    /**
+     * Returns the number of renders refused because the memory budget stayed full.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Returns the part of the memory budget held by running renders and by rendered reports still being sent.
+     */
+    public long getAdmittedBytes() {
+        return admission.getUsedBytes();
+    }
+
+    /**
+     * Stops accepting connections, gives running exchanges up to {@code delaySeconds} to finish and shuts down the
+     * request pool if the server created it.
+     */
+    public void stop(int delaySeconds) throws InterruptedException {
+        server.stop(delaySeconds);
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+            ownedExecutor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the server at once, like {@code stop(0)}. When the calling thread is interrupted while the request pool
+     * shuts down, it returns with the interrupt flag set.
+     */
+    @Override
+    public void close() {
+        try {
+            stop(0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+            ReportKey key;
+            try {
+                key = parse(exchange);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Data version of " + exchange.getRequestURI() + " could not be read", e);
+                sendError(exchange, 500, "Report failed");
+                return;
+            }
+            if (key == null) {
+                sendError(exchange, 404, "Expected /reports/<tenant>/<users|warehouses|products|tasks>");
+                return;
+            }
+            InputStream report;
+            try {
+                report = coalescer.get(key, () -> render(key));
+            } catch (AdmissionRejectedException e) {
+                rejected.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+                sendError(exchange, 503, "Too many reports rendering, retry later");
+                return;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Report " + key + " failed", e);
+                sendError(exchange, 500, "Report failed");
+                return;
+            }
+            try (InputStream in = report) {
+                exchange.getResponseHeaders().set("Content-Type", "application/pdf");
+                // A length of 0 selects chunked transfer encoding
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Returns the key of the requested report, or {@code null} when the path names none.
+     *
+     * @throws IllegalArgumentException when a query parameter is not a boolean flag of the report
+     */
+    private ReportKey parse(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(CONTEXT.length());
+        String[] segments = path.split("/");
+        if (segments.length != 2 || segments[0].isEmpty()) {
+            return null;
+        }
+        ReportType type = ReportType.forPath(segments[1]);
+        if (type == null) {
+            return null;
+        }
+        String tenant = segments[0];
+        Map<String, Boolean> flags = parseFlags(exchange.getRequestURI().getRawQuery(), type);
+        return new ReportKey(tenant, type, flags, data.getVersion(tenant, type));
+    }
+
+    private static Map<String, Boolean> parseFlags(String query, ReportType type) throws IOException {
+        List<String> allowed = type == ReportType.USERS ? Arrays.asList("includeTasks")
+                : type == ReportType.TASKS ? Arrays.asList("includeUsers", "includeProducts", "includeWarehouses", "includePieChart")
+                : Arrays.<String>asList();
+        Map<String, Boolean> flags = new HashMap<>();
+        for (String name : allowed) {
+            flags.put(name, false);
+        }
+        if (query == null || query.isEmpty()) {
+            return flags;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = URLDecoder.decode(separator < 0 ? parameter : parameter.substring(0, separator), StandardCharsets.UTF_8.name());
+            String value = separator < 0 ? "true" : URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8.name());
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown parameter for " + type.getPath() + ": " + name);
+            }
+            if (!"true".equals(value) && !"false".equals(value)) {
+                throw new IllegalArgumentException("Parameter " + name + " must be true or false");
+            }
+            flags.put(name, Boolean.valueOf(value));
+        }
+        return flags;
+    }
+
+    /**
+     * Waits for room in the memory budget for the estimated rows of the report, loads them, corrects the
+     * reservation to their actual number and renders the report into a closed buffer. Once rendered, the part of the
+     * reservation for the rows is returned and the part for the buffered report is held until the buffer is
+     * discarded. A render that finds no room has loaded nothing.
+     */
+    private SpillingOutputStream render(ReportKey key) throws IOException {
+        String tenant = key.getTenant();
+        ReportType type = key.getType();
+        long estimate = data.estimateRows(tenant, type);
+        int cost;
+        try {
+            cost = admission.acquire(renderBytes(estimate >= 0 ? estimate : options.getDefaultRowEstimate()),
+                    options.getAdmissionTimeoutMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for admission", e);
+        }
+        if (cost < 0) {
+            throw new AdmissionRejectedException();
+        }
+        try {
+            Collection<?> rows = load(tenant, type);
+            int actualCost = admission.resize(cost, renderBytes(rows.size()), options.getAdmissionTimeoutMillis());
+            if (actualCost < 0) {
+                throw new AdmissionRejectedException();
+            }
+            cost = actualCost;
+
+            AdmittedOutputStream out = new AdmittedOutputStream(options.getSpillThresholdBytes());
+            try {
+                render(key, rows, out);
+                out.close();
+            } catch (IOException | RuntimeException e) {
+                out.discard();
+                throw e;
+            }
+            // The rows can go now, but the buffered report stays on the heap until its last reader is closed
+            int bufferCost = admission.share(cost, out.isSpilled() ? 0 : out.size());
+            out.hold(bufferCost);
+            cost -= bufferCost;
+            return out;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for admission", e);
+        } finally {
+            admission.release(cost);
+        }
+    }
+
+    /**
+     * Returns the heap a render of {@code rows} rows is assumed to need: its output buffer and a cost per row.
+     */
+    private long renderBytes(long rows) {
+        return options.getSpillThresholdBytes() + rows * options.getBytesPerRow();
+    }
+
+    private Collection<?> load(String tenant, ReportType type) throws IOException {
+        switch (type) {
+            case USERS:
+                return data.getUsers(tenant);
+            case WAREHOUSES:
+                return data.getWarehouses(tenant);
+            case PRODUCTS:
+                return data.getProducts(tenant);
+            default:
+                return data.getTasks(tenant);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void render(ReportKey key, Collection<?> rows, OutputStream out) throws IOException {
+        switch (key.getType()) {
+            case USERS:
+                service.generateUserReport((List<User>) rows, key.flag("includeTasks"), out);
+                break;
+            case WAREHOUSES:
+                service.generateWarehouseReport((List<Warehouse>) rows, out);
+                break;
+            case PRODUCTS:
+                service.generateProductReport((List<Product>) rows, out);
+                break;
+            default:
+                service.generateTaskReport((List<Tasks>) rows, key.flag("includeUsers"),
+                        key.flag("includeProducts"), key.flag("includeWarehouses"), key.flag("includePieChart"), out);
+                break;
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Thrown by a render that found no room in the memory budget, to answer all of its requests with 503.
+     */
+    private static final class AdmissionRejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        AdmissionRejectedException() {
+            super("Memory budget exhausted");
+        }
+    }
+
+    /**
+     * Report buffer that returns its share of the memory budget when it is discarded, after its last reader.
+     */
+    private final class AdmittedOutputStream extends SpillingOutputStream {
+        private int cost;
+
+        AdmittedOutputStream(long threshold) {
+            super(threshold);
+        }
+
+        void hold(int cost) {
+            this.cost = cost;
+        }
+
+        @Override
+        public void discard() throws IOException {
+            try {
+                super.discard();
+            } finally {
+                admission.release(cost);
+                cost = 0;
+            }
+        }
+    }
+
+    private static final class RequestThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "pdf-report-server-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
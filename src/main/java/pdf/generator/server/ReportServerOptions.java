@@ -0,0 +1,149 @@
+package pdf.generator.server;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Settings of a {@link ReportServer}.
+ */
+public class ReportServerOptions {
+
+    private int port = 8080;
+    private int backlog;
+    private int threads = Runtime.getRuntime().availableProcessors() * 4;
+    private Executor executor;
+    private long memoryBudgetBytes = Runtime.getRuntime().maxMemory() / 2;
+    private long bytesPerRow = 1024;
+    private long defaultRowEstimate = 10_000;
+    private long spillThresholdBytes = 4L * 1024 * 1024;
+    private long admissionTimeoutMillis = 10_000;
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Sets the port to listen on; 0 picks a free one, reported by {@link ReportServer#getPort()}.
+     */
+    public ReportServerOptions setPort(int port) {
+        this.port = port;
+        return this;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * Sets the number of pending connections the socket queues; 0 uses the system default.
+     */
+    public ReportServerOptions setBacklog(int backlog) {
+        this.backlog = backlog;
+        return this;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of request threads of the pool the server creates when no executor is given. Requests that
+     * wait for a coalesced render or for admission hold their thread, so the pool is larger than the core count.
+     */
+    public ReportServerOptions setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor that handles requests instead of a pool created by the server, for example one thread per
+     * request on a runtime with virtual threads. The server does not shut it down.
+     */
+    public ReportServerOptions setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    /**
+     * Sets the heap the reports rendering at the same time may use together, by their estimated cost. Half of the
+     * maximum heap by default.
+     */
+    public ReportServerOptions setMemoryBudgetBytes(long memoryBudgetBytes) {
+        if (memoryBudgetBytes < 1024) {
+            throw new IllegalArgumentException("memoryBudgetBytes must be at least 1024: " + memoryBudgetBytes);
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        return this;
+    }
+
+    public long getBytesPerRow() {
+        return bytesPerRow;
+    }
+
+    /**
+     * Sets the heap a report is assumed to need per input row while it renders, on top of its output buffer.
+     */
+    public ReportServerOptions setBytesPerRow(long bytesPerRow) {
+        if (bytesPerRow < 0) {
+            throw new IllegalArgumentException("bytesPerRow must not be negative: " + bytesPerRow);
+        }
+        this.bytesPerRow = bytesPerRow;
+        return this;
+    }
+
+    public long getDefaultRowEstimate() {
+        return defaultRowEstimate;
+    }
+
+    /**
+     * Sets the number of rows a report is assumed to have while its rows load, when the data source gives no
+     * {@linkplain ReportDataSource#estimateRows estimate}.
+     */
+    public ReportServerOptions setDefaultRowEstimate(long defaultRowEstimate) {
+        if (defaultRowEstimate < 0) {
+            throw new IllegalArgumentException("defaultRowEstimate must not be negative: " + defaultRowEstimate);
+        }
+        this.defaultRowEstimate = defaultRowEstimate;
+        return this;
+    }
+
+    public long getSpillThresholdBytes() {
+        return spillThresholdBytes;
+    }
+
+    /**
+     * Sets the size past which a rendered report is buffered in a temporary file instead of on the heap.
+     */
+    public ReportServerOptions setSpillThresholdBytes(long spillThresholdBytes) {
+        if (spillThresholdBytes < 0) {
+            throw new IllegalArgumentException("spillThresholdBytes must not be negative: " + spillThresholdBytes);
+        }
+        this.spillThresholdBytes = spillThresholdBytes;
+        return this;
+    }
+
+    public long getAdmissionTimeoutMillis() {
+        return admissionTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a render waits for room in the memory budget before its requests are answered with 503.
+     */
+    public ReportServerOptions setAdmissionTimeoutMillis(long admissionTimeoutMillis) {
+        if (admissionTimeoutMillis < 0) {
+            throw new IllegalArgumentException("admissionTimeoutMillis must not be negative: " + admissionTimeoutMillis);
+        }
+        this.admissionTimeoutMillis = admissionTimeoutMillis;
+        return this;
+    }
+}
@@ -0,0 +1,34 @@
+package pdf.generator.server;
+
+/**
+ * The reports a {@link ReportServer} serves, each under {@code /reports/<tenant>/<path>}.
+ */
+public enum ReportType {
+
+    USERS("users"),
+    WAREHOUSES("warehouses"),
+    PRODUCTS("products"),
+    TASKS("tasks");
+
+    private final String path;
+
+    ReportType(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the report served under {@code path}, or {@code null} when there is none.
+     */
+    static ReportType forPath(String path) {
+        for (ReportType type : values()) {
+            if (type.path.equals(path)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
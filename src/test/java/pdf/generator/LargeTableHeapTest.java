@@ -0,0 +1,167 @@
+package pdf.generator;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pdf.generator.model.Product;
+import pdf.generator.model.User;
+import pdf.generator.model.Warehouse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Renders 100k-row user, warehouse and product reports in a JVM whose heap is capped, so a report whose layout tree
+ * grows with its row count fails with an {@link OutOfMemoryError} instead of passing on a large test heap.
+ */
+class LargeTableHeapTest {
+
+    private static final String MAX_HEAP = "-Xmx40m";
+    private static final int ROWS = 100_000;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"users", "warehouses", "products"})
+    void reportOf100kRowsFitsIn40MbHeap(String report) throws Exception {
+        Path log = Files.createTempFile("large-table-heap", ".log");
+        try {
+            List<String> command = Arrays.asList(
+                    System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                    MAX_HEAP, "-Djava.awt.headless=true",
+                    "-cp", System.getProperty("java.class.path"),
+                    LargeTableHeapTest.class.getName(), report);
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+            assertTrue(process.waitFor(5, TimeUnit.MINUTES), "Report did not finish in time");
+            String output = new String(Files.readAllBytes(log), StandardCharsets.UTF_8);
+            assertEquals(0, process.exitValue(), output);
+            assertTrue(output.contains("iterated=" + ROWS + " rendered=" + ROWS), output);
+        } finally {
+            Files.delete(log);
+        }
+    }
+
+    /**
+     * Runs in the forked JVM and prints how many rows the report read and how many its metrics say it rendered. The
+     * rows are created as they are iterated, so only the report holds heap.
+     */
+    public static void main(String[] args) throws IOException {
+        AtomicLong rendered = new AtomicLong(-1);
+        PdfGeneratorService service = new PdfGeneratorService(
+                new ReportOptions().setMetricsListener(metrics -> rendered.set(metrics.getRows())));
+        CountingOutputStream out = new CountingOutputStream();
+        Rows<?> rows;
+        switch (args[0]) {
+            case "users":
+                Rows<User> users = new Rows<>(LargeTableHeapTest::user);
+                service.generateUserReport(users, false, out);
+                rows = users;
+                break;
+            case "warehouses":
+                Rows<Warehouse> warehouses = new Rows<>(LargeTableHeapTest::warehouse);
+                service.generateWarehouseReport(warehouses, out);
+                rows = warehouses;
+                break;
+            case "products":
+                Rows<Product> products = new Rows<>(LargeTableHeapTest::product);
+                service.generateProductReport(products, out);
+                rows = products;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown report: " + args[0]);
+        }
+        System.out.println("iterated=" + rows.iterated + " rendered=" + rendered.get() + " bytes=" + out.count);
+    }
+
+    private static User user(int i) {
+        User user = new User();
+        user.setId((long) i);
+        user.setUsername("user" + i);
+        user.setName("Name" + i % 1000);
+        user.setLastname("Lastname" + i % 5000);
+        user.setPesel(String.format("%011d", i));
+        user.setEmail("user" + i + "@example.com");
+        user.setPhoneNumber(String.format("+48 %09d", i));
+        user.setActive(i % 2 == 0);
+        return user;
+    }
+
+    private static Warehouse warehouse(int i) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBuilding("B" + i % 5);
+        warehouse.setZone("Z" + i % 8);
+        warehouse.setSpaceId((long) i);
+        warehouse.setSpaceHeight(50 + i % 300);
+        warehouse.setSpaceWidth(50 + i % 200);
+        warehouse.setSpaceLength(50 + i % 100);
+        warehouse.setProductId(i % 4 == 0 ? null : (long) (i % 10_000));
+        return warehouse;
+    }
+
+    private static Product product(int i) {
+        Product product = new Product();
+        product.setId((long) i);
+        product.setName("Product " + i);
+        product.setCode("P-" + Integer.toHexString(i).toUpperCase());
+        product.setWidth(i % 1000 / 10.0);
+        product.setHeight(i % 700 / 10.0);
+        product.setLength(i % 300 / 10.0);
+        product.setWeight(i % 10_000 / 100.0);
+        product.setActive(i % 3 != 0);
+        return product;
+    }
+
+    /**
+     * {@link #ROWS} rows created as they are iterated, counting how many were handed out.
+     */
+    private static final class Rows<T> implements Iterable<T> {
+        private final IntFunction<T> row;
+        private long iterated;
+
+        Rows(IntFunction<T> row) {
+            this.row = row;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < ROWS;
+                }
+
+                @Override
+                public T next() {
+                    iterated++;
+                    return row.apply(next++);
+                }
+            };
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}